@@ -0,0 +1,146 @@
+package com.mycompany.qapsolver;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One iteration of each algorithm registered in ExperimentRunner.
+ *
+ * RS and RW run a single iteration, H one construction, G and S (2-swap, don't-look
+ * bits and 3-opt) a single start limited to one improving step. The SA variants,
+ * TS, RoTS, PT, IM, MA and ILS are time-limited, so they run for a fixed 1 ms
+ * budget and report the evaluations they managed as an extra counter, which
+ * JMH prints as time per evaluation; that is the number to compare. Every measurement
+ * includes constructing the algorithm, as ExperimentRunner does per run; for PT,
+ * IM and MA that includes starting their threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlgorithmBenchmark {
+    private static final long TIME_LIMITED_BUDGET_NS = 1_000_000L;
+
+    @Param({"chr12a", "had20", "tai50a", "tai100a", "sko100a", "tai256c"})
+    public String instance;
+
+    @Param({"RS", "RW", "H", "G-2swap", "G-dlb", "S-2swap", "G-3opt", "S-3opt", "SA", "SA-LM", "SA-reheat",
+            "TS", "RoTS", "PT", "IM", "MA", "ILS"})
+    public String algorithm;
+
+    private Problem problem;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long evaluations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            evaluations = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        problem = BenchmarkInstances.load(instance);
+    }
+
+    @Benchmark
+    public Solution oneIteration(Counters counters) {
+        Algorithm alg;
+        switch (algorithm) {
+            case "RS":
+                alg = new RandomSearchAlgorithm(problem, 1);
+                alg.run();
+                break;
+            case "RW":
+                alg = new RandomWalkAlgorithm(problem, 1);
+                alg.run();
+                break;
+            case "H":
+                alg = new NearestNeighborAlgorithm(problem);
+                alg.run();
+                break;
+            case "G-2swap":
+                alg = new MultiStartGreedyAlgorithm(problem, 1, 1, new TwoSwapOperator());
+                alg.run();
+                break;
+            case "G-dlb":
+                alg = new DontLookBitsGreedyAlgorithm(problem, 1, 1);
+                alg.run();
+                break;
+            case "S-2swap":
+                alg = new MultiStartSteepestDescentAlgorithm(problem, 1, 1, new TwoSwapOperator());
+                alg.run();
+                break;
+            case "G-3opt":
+                alg = new ThreeOptLocalSearchAlgorithm(problem, 1, 1,
+                        new ThreeOptOperator(problem, Config.THREE_OPT_CANDIDATES), true);
+                alg.run();
+                break;
+            case "S-3opt":
+                alg = new ThreeOptLocalSearchAlgorithm(problem, 1, 1,
+                        new ThreeOptOperator(problem, Config.THREE_OPT_CANDIDATES), false);
+                alg.run();
+                break;
+            case "SA":
+                alg = new SimulatedAnnealingAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "SA-LM":
+                alg = new SimulatedAnnealingAlgorithm(problem, new LundyMeesCooling(Config.SA_LUNDY_MEES_BETA));
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "SA-reheat":
+                alg = new SimulatedAnnealingAlgorithm(problem, new ReheatingCooling(
+                        new GeometricCooling(0.9), Config.SA_REHEAT_PATIENCE, Config.SA_REHEAT_FRACTION));
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "TS":
+                alg = new TabuSearchAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "RoTS":
+                alg = new RobustTabuSearchAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "PT":
+                alg = new ParallelTemperingAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "IM":
+                alg = new IslandModelAlgorithm(problem, ExperimentRunner.defaultIslands());
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "MA":
+                alg = new MemeticAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            case "ILS":
+                alg = new IteratedLocalSearchAlgorithm(problem);
+                ((TimeLimitedAlgorithm) alg).run(TIME_LIMITED_BUDGET_NS);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + algorithm);
+        }
+        counters.evaluations += alg.getEvaluationsCount();
+        return alg.getBestSolution();
+    }
+}
@@ -0,0 +1,18 @@
+package com.mycompany.qapsolver;
+
+import java.io.IOException;
+
+/**
+ * Loads QAPLIB instances for the benchmarks. Instances are read from the
+ * directory given by the qap.data system property, which defaults to
+ * data/qapdatsol relative to the working directory (the repository root).
+ */
+final class BenchmarkInstances {
+    private BenchmarkInstances() {
+    }
+
+    static Problem load(String instance) throws IOException {
+        String dir = System.getProperty("qap.data", "data/qapdatsol");
+        return new Problem(dir + "/" + instance + ".dat");
+    }
+}
@@ -0,0 +1,87 @@
+package com.mycompany.qapsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of scoring one solution: full evaluation, one O(n) swap delta and one
+ * O(n^2) update of the maintained delta table.
+ *
+ * The forked JVM adds the jdk.incubator.vector module, so a build with -Pvector
+ * measures the Vector API kernel on the int-safe instances of at least
+ * Config.VECTOR_MIN_SIZE facilities; other builds measure the scalar loops.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EvaluatorBenchmark {
+    @Param({"chr12a", "had20", "tai50a", "tai100a", "sko100a", "tai256c"})
+    public String instance;
+
+    private Problem problem;
+    private DeltaEvaluator evaluator;
+    private SwapDeltaMatrix deltas;
+    private Solution solution;
+    private int[] pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        problem = BenchmarkInstances.load(instance);
+        evaluator = new DeltaEvaluator(problem);
+        deltas = new SwapDeltaMatrix(problem, evaluator);
+
+        // A fixed pseudo-random sequence of distinct position pairs, so the JIT
+        // cannot specialise on a constant move.
+        int n = problem.getSize();
+        Random rand = new Random(42);
+        solution = Solution.random(n, rand);
+        pairs = new int[2 * 1024];
+        for (int k = 0; k < pairs.length; k += 2) {
+            int i = rand.nextInt(n);
+            int j;
+            do {
+                j = rand.nextInt(n);
+            } while (j == i);
+            pairs[k] = i;
+            pairs[k + 1] = j;
+        }
+    }
+
+    @Benchmark
+    public long fullEvaluation() {
+        return evaluator.cost(solution.getAssignment());
+    }
+
+    @Benchmark
+    public long swapDelta() {
+        int k = next;
+        next = (k + 2) & (pairs.length - 1);
+        return evaluator.swapDelta(solution, pairs[k], pairs[k + 1]);
+    }
+
+    @Benchmark
+    public long deltaMatrixApplySwap() {
+        int k = next;
+        next = (k + 2) & (pairs.length - 1);
+        deltas.applySwap(solution, pairs[k], pairs[k + 1]);
+        return deltas.get(solution, pairs[k], pairs[k + 1]);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mycompany.qapsolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full scan of the 3-opt neighborhood: scoring every move by delta through
+ * the operator's move cursor, versus materialising every neighbor as a Solution.
+ * scanCandidatesWithDeltaTable scans the candidate-list neighborhood
+ * (Config.THREE_OPT_CANDIDATES per facility) with swap components read from a
+ * SwapDeltaMatrix, as ThreeOptLocalSearchAlgorithm does.
+ * The neighborhood has 5 * C(n, 3) moves, so only instances up to n = 50 are listed;
+ * materialising it for the 100+ instances would not fit in memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreeOptNeighborhoodBenchmark {
+    @Param({"chr12a", "had20", "tai40a", "tai50a"})
+    public String instance;
+
+    private final NeighborhoodOperator operator = new ThreeOptOperator();
+    private ThreeOptOperator candidateOperator;
+    private SwapDeltaMatrix deltas;
+    private DeltaEvaluator evaluator;
+    private Solution solution;
+    private int n;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Problem problem = BenchmarkInstances.load(instance);
+        evaluator = new DeltaEvaluator(problem);
+        n = problem.getSize();
+        solution = Solution.random(n, new SplittableRandom(42));
+        candidateOperator = new ThreeOptOperator(problem, Config.THREE_OPT_CANDIDATES);
+        deltas = new SwapDeltaMatrix(problem, evaluator);
+    }
+
+    @Benchmark
+    public long scanByDelta() {
+        long best = 0;
+        for (int move = operator.firstMove(n); move != NeighborhoodOperator.NO_MOVE; move = operator.nextMove(move, n)) {
+            best = Math.min(best, operator.evaluateMove(solution, move, evaluator));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public long scanCandidatesWithDeltaTable() {
+        long best = 0;
+        for (int move = candidateOperator.firstMove(n); move != NeighborhoodOperator.NO_MOVE;
+             move = candidateOperator.nextMove(move, n)) {
+            best = Math.min(best, candidateOperator.evaluateMove(solution, move, deltas, evaluator));
+        }
+        return best;
+    }
+
+    @Benchmark
+    public List<Solution> generateNeighbors() {
+        return operator.generateNeighbors(solution);
+    }
+}
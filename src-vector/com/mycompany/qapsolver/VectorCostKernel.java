@@ -0,0 +1,152 @@
+package com.mycompany.qapsolver;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * CostKernel on the incubating Vector API (jdk.incubator.vector), for instances
+ * whose costs fit in an int.
+ *
+ * The gather distance[row + p[j]] is the only non-contiguous access of both
+ * loops. Each distance row is first loaded through p with a gathering vector load
+ * into a permuted-row buffer, so the multiply-accumulate loops that follow read
+ * only contiguous flow rows and buffers at full vector width. The swap delta
+ * stores the difference of the two permuted distance rows it needs, sums over
+ * every k, and then takes out the k = r and k = s terms in scalar code instead
+ * of branching inside the vector loop. Int overflow in partial sums wraps and
+ * cancels out, because the final value is known to fit.
+ *
+ * Lives in src-vector and is only compiled by the "vector" Maven profile; see
+ * DeltaEvaluator for how it is picked up at run time.
+ */
+final class VectorCostKernel implements CostKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final int[] flow;
+    private final int[] distance;
+    private final int[] flowTransposed;
+    private final int[] distanceTransposed;
+    private final boolean symmetric;
+    private final int size;
+    // Largest multiple of the vector length not above size.
+    private final int upper;
+
+    // Permuted distance rows: row[j] = distance[a * n + p[j]] for the row a being processed.
+    private final int[] row;
+    private final int[] rowTransposed;
+
+    VectorCostKernel(Problem problem) {
+        this.flow = problem.getFlowData();
+        this.distance = problem.getDistanceData();
+        this.flowTransposed = problem.getFlowDataTransposed();
+        this.distanceTransposed = problem.getDistanceDataTransposed();
+        this.symmetric = problem.isSymmetric();
+        this.size = problem.getSize();
+        this.upper = SPECIES.loopBound(size);
+        this.row = new int[size];
+        this.rowTransposed = new int[size];
+    }
+
+    @Override
+    public long cost(int[] p) {
+        int n = size;
+        int offDiagonal = 0;
+        for (int i = 0; i < n; i++) {
+            // Symmetric instances only visit j > i; that half is counted twice below.
+            int from = symmetric ? i + 1 : 0;
+            permute(distance, p[i] * n, p, from, row);
+            offDiagonal += dot(flow, i * n + from, row, from, n - from);
+        }
+        if (!symmetric) {
+            return offDiagonal;
+        }
+        int diagonal = 0;
+        for (int i = 0; i < n; i++) {
+            diagonal += flow[i * n + i] * distance[p[i] * n + p[i]];
+        }
+        return diagonal + 2 * offDiagonal;
+    }
+
+    @Override
+    public long swapDelta(int[] p, int r, int s) {
+        int n = size;
+        int pr = p[r];
+        int ps = p[s];
+        int fr = r * n;
+        int fs = s * n;
+        int dr = pr * n;
+        int ds = ps * n;
+
+        // row[k] = d[p[s]][p[k]] - d[p[r]][p[k]], and the same for the transposed matrix.
+        permuteDifference(distance, ds, dr, p, row);
+        int sum = dotDifference(flow, fr, fs, row);
+        int excluded = (flow[fr + r] - flow[fs + r]) * row[r] + (flow[fr + s] - flow[fs + s]) * row[s];
+        int delta = (flow[fr + r] - flow[fs + s]) * (distance[ds + ps] - distance[dr + pr]);
+        if (symmetric) {
+            return delta + 2 * (sum - excluded);
+        }
+
+        permuteDifference(distanceTransposed, ds, dr, p, rowTransposed);
+        sum += dotDifference(flowTransposed, fr, fs, rowTransposed);
+        excluded += (flowTransposed[fr + r] - flowTransposed[fs + r]) * rowTransposed[r]
+                + (flowTransposed[fr + s] - flowTransposed[fs + s]) * rowTransposed[s];
+        delta += (flow[fr + s] - flow[fs + r]) * (distance[ds + pr] - distance[dr + ps]);
+        return delta + sum - excluded;
+    }
+
+    // out[j] = matrix[offset + p[j]] for j >= from
+    private void permute(int[] matrix, int offset, int[] p, int from, int[] out) {
+        int j = from;
+        for (int end = from + SPECIES.loopBound(size - from); j < end; j += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, matrix, offset, p, j).intoArray(out, j);
+        }
+        for (; j < size; j++) {
+            out[j] = matrix[offset + p[j]];
+        }
+    }
+
+    // out[k] = matrix[plus + p[k]] - matrix[minus + p[k]]
+    private void permuteDifference(int[] matrix, int plus, int minus, int[] p, int[] out) {
+        int k = 0;
+        for (; k < upper; k += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, matrix, plus, p, k)
+                    .sub(IntVector.fromArray(SPECIES, matrix, minus, p, k))
+                    .intoArray(out, k);
+        }
+        for (; k < size; k++) {
+            out[k] = matrix[plus + p[k]] - matrix[minus + p[k]];
+        }
+    }
+
+    // sum over k < length of a[aOffset + k] * b[bOffset + k]
+    private static int dot(int[] a, int aOffset, int[] b, int bOffset, int length) {
+        IntVector acc = IntVector.zero(SPECIES);
+        int k = 0;
+        for (int end = SPECIES.loopBound(length); k < end; k += SPECIES.length()) {
+            acc = acc.add(IntVector.fromArray(SPECIES, a, aOffset + k)
+                    .mul(IntVector.fromArray(SPECIES, b, bOffset + k)));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    // sum over k of (matrix[plus + k] - matrix[minus + k]) * b[k]
+    private int dotDifference(int[] matrix, int plus, int minus, int[] b) {
+        IntVector acc = IntVector.zero(SPECIES);
+        int k = 0;
+        for (; k < upper; k += SPECIES.length()) {
+            acc = acc.add(IntVector.fromArray(SPECIES, matrix, plus + k)
+                    .sub(IntVector.fromArray(SPECIES, matrix, minus + k))
+                    .mul(IntVector.fromArray(SPECIES, b, k)));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < size; k++) {
+            sum += (matrix[plus + k] - matrix[minus + k]) * b[k];
+        }
+        return sum;
+    }
+}
@@ -1,5 +1,7 @@
 package com.mycompany.qapsolver;
 
+import java.util.random.RandomGenerator;
+
 public abstract class Algorithm {
     /**
      * The problem instance to be solved.
@@ -9,58 +11,147 @@ public abstract class Algorithm {
     protected final Solution currentSolution;
     protected final Solution bestSolution;
 
+    /**
+     * O(n) evaluator for 2-swap moves; its calls are counted as evaluations too.
+     */
+    protected final DeltaEvaluator deltaEvaluator;
+
+    /**
+     * Recycled solutions of the problem's size, for algorithms that create and drop
+     * solutions while they run.
+     */
+    protected final SolutionPool solutionPool;
+
     // Counters for metrics.
     protected long evaluationsCount = 0;
     protected long stepsCount = 0;
 
     // Fields to record the initial solution and its fitness.
     protected Solution initialSolution;
-    protected int initialFitness;
+    protected long initialFitness;
+
+    // Seed of rand, reported with the results so a run can be replayed with setSeed().
+    private long seed;
+
+    /**
+     * Random numbers for this algorithm, created from its seed. Like the rest of the
+     * algorithm's state it belongs to the thread running it; worker threads get their
+     * own generators seeded from it.
+     */
+    protected RandomGenerator rand;
+
+    // Best fitness over time, fed by recordBest(); null unless setTrace() attached one.
+    private ConvergenceTrace trace;
 
     public Algorithm(Problem problem) {
         this.problem = problem;
+        this.deltaEvaluator = new DeltaEvaluator(problem);
         int size = problem.getSize();
-        this.currentSolution = new Solution(size);
-        this.bestSolution = new Solution(size);
-        // Initially, copy currentSolution into bestSolution.
-        this.bestSolution.copyFrom(currentSolution);
+        this.seed = RandomSource.newSeed();
+        this.rand = RandomSource.create(seed);
+        this.currentSolution = Solution.random(size, rand);
+        // Initially, bestSolution is a copy of currentSolution.
+        this.bestSolution = Solution.copyOf(currentSolution);
+        this.solutionPool = new SolutionPool(size);
     }
 
     /**
      * Records the current state of currentSolution as the initial solution,
-     * along with its evaluated fitness.
+     * along with its fitness (evaluated unless a start solution brought it along).
      */
     protected void recordInitial() {
-        this.initialSolution = new Solution(problem.getSize());
-        this.initialSolution.copyFrom(currentSolution);
-        this.initialFitness = evaluate(currentSolution);
+        this.initialFitness = fitnessOf(currentSolution);
+        this.initialSolution = Solution.copyOf(currentSolution);
+        recordBest(initialFitness);
+    }
+
+    /**
+     * Reports a fitness the search has reached to the convergence trace, which keeps
+     * it only if it is a new best. Cheap when it is not, and safe to call from the
+     * worker threads of parallel algorithms.
+     */
+    protected void recordBest(long fitness) {
+        if (trace != null) {
+            trace.record(fitness, getEvaluationsCount());
+        }
+    }
+
+    // For worker threads, which report the evaluations they have counted themselves.
+    protected void recordBest(long fitness, long evaluations) {
+        if (trace != null) {
+            trace.record(fitness, evaluations);
+        }
+    }
+
+    /**
+     * Attaches a convergence trace (null detaches it). Set it before run(); without
+     * one, recordBest() does nothing.
+     */
+    public void setTrace(ConvergenceTrace trace) {
+        this.trace = trace;
+    }
+
+    public ConvergenceTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Restarts the random stream from seed and redraws the random starting solution
+     * from it, so the run can be repeated. Call it before setStartSolution().
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.rand = RandomSource.create(seed);
+        currentSolution.randomize(rand);
+        bestSolution.copyFrom(currentSolution);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Makes the next run start from a copy of start instead of the random solution
+     * created by the constructor. Algorithms that build their own starting point
+     * (e.g. random search, the nearest neighbor heuristic) ignore it.
+     */
+    public void setStartSolution(Solution start) {
+        currentSolution.copyFrom(start);
     }
 
     public Solution getInitialSolution() {
         return initialSolution;
     }
 
-    public int getInitialFitness() {
+    public long getInitialFitness() {
         return initialFitness;
     }
 
     /**
-     * Evaluates the fitness (cost) of a given solution.
+     * Evaluates the fitness (cost) of a given solution and caches it on the solution.
      * Each call to evaluate() increments evaluationsCount.
      */
-    protected int evaluate(Solution sol) {
+    protected long evaluate(Solution sol) {
         evaluationsCount++;
-        int[][] flow = problem.getFlowMatrix();
-        int[][] distance = problem.getDistanceMatrix();
-        int[] assignment = sol.getAssignment();
-        int size = problem.getSize();
-        int cost = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                cost += flow[i][j] * distance[assignment[i]][assignment[j]];
-            }
-        }
-        return cost;
+        long fitness = deltaEvaluator.cost(sol.getAssignment());
+        sol.setFitness(fitness);
+        return fitness;
+    }
+
+    /**
+     * The fitness cached on sol, or evaluate(sol) when it has none, so reading the
+     * cost of an unchanged solution is O(1) and not counted as an evaluation.
+     */
+    protected long fitnessOf(Solution sol) {
+        return sol.hasFitness() ? sol.getFitness() : evaluate(sol);
+    }
+
+    /**
+     * Returns the cost change of swapping positions i and j of a solution,
+     * using the O(n) delta evaluator instead of a full evaluation.
+     */
+    protected long evaluateSwap(Solution sol, int i, int j) {
+        return deltaEvaluator.swapDelta(sol, i, j);
     }
 
     // Each algorithm must implement its own run() method.
@@ -70,15 +161,28 @@ public abstract class Algorithm {
         return bestSolution;
     }
 
-    public int getBestFitness() {
-        return evaluate(bestSolution);
+    /**
+     * Cost of the best solution. O(1) when the search left its fitness cached, as the
+     * delta-driven searches do; otherwise it is computed once and cached, without
+     * counting as an evaluation since the search itself did not need it.
+     */
+    public long getBestFitness() {
+        if (!bestSolution.hasFitness()) {
+            bestSolution.setFitness(deltaEvaluator.cost(bestSolution.getAssignment()));
+        }
+        return bestSolution.getFitness();
     }
 
     public long getEvaluationsCount() {
-        return evaluationsCount;
+        return evaluationsCount + deltaEvaluator.getEvaluationsCount();
     }
 
     public long getStepsCount() {
         return stepsCount;
     }
+
+    // Threads a run keeps busy; algorithms that run in parallel override it.
+    public int getThreads() {
+        return 1;
+    }
 }
@@ -5,6 +5,54 @@ public class Config {
     public static final int RUNS_PER_INSTANCE = 20;    // number of runs per instance
     public static final int MAX_INSTANCES = 13;          // maximum number of working instances to process
 
+    // Directory for binary copies of parsed instances (null disables the cache).
+    public static final String INSTANCE_CACHE_DIR = ".qapcache";
+
+    // Parallel experiment harness: total worker threads for experiment cells, and how many
+    // of them are reserved for time-limited runs (0 = one shared pool). Keeping the total at
+    // the core count means no run, timed or not, has to share a core with another.
+    public static final int EXPERIMENT_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int EXPERIMENT_DEDICATED_TIMED_THREADS = 0;
+
+    // Cooperative runs: when ELITE_POOL_SIZE > 0, the time-limited runs of an algorithm on an
+    // instance share an elite pool, starting from one of its entries and publishing their
+    // result. Entries at least ELITE_POOL_MAX_SIMILARITY alike (fraction of equal positions)
+    // count as duplicates.
+    public static final int ELITE_POOL_SIZE = 0;
+    public static final double ELITE_POOL_MAX_SIMILARITY = 0.9;
+
+    // Vector API evaluation: use the jdk.incubator.vector kernel for full costs and swap deltas
+    // when it was built (-Pvector) and the JVM runs with --add-modules jdk.incubator.vector, on
+    // instances of at least VECTOR_MIN_SIZE facilities (below that the scalar loops are as fast).
+    public static final boolean VECTOR_EVALUATION = true;
+    public static final int VECTOR_MIN_SIZE = 32;
+
+    // Convergence traces: samples kept per run, minimum spacing of samples, and the directory
+    // each run's trace is written to as <instance>-<algorithm>-<run>.csv (null: runs keep no trace).
+    public static final int TRACE_CAPACITY = 4096;
+    public static final long TRACE_MIN_INTERVAL_NS = 1_000_000;
+    public static final String TRACE_DIR = null;
+
+    // Stopping criteria: clocks are read about every TERMINATION_CHECK_INTERVAL_NS, and on top of
+    // its time budget each time-limited run may get an evaluation budget, a CPU-time budget and a
+    // limit on iterations without a new best (0 disables each).
+    public static final long TERMINATION_CHECK_INTERVAL_NS = 100_000;
+    public static final long MAX_EVALUATIONS = 0;
+    public static final long CPU_TIME_LIMIT_NS = 0;
+    public static final long STAGNATION_ITERATIONS = 0;
+
+    // Known optima from optimal_data.csv: a run counts as having reached the optimum once it is
+    // within TARGET_GAP (relative) of it. With STOP_AT_TARGET it stops there; either way the time
+    // it took is recorded. Off by default, so runs keep their full budget and their TimeMs and
+    // Evaluations stay comparable with earlier results.
+    public static final boolean STOP_AT_TARGET = false;
+    public static final double TARGET_GAP = 0.0;
+
+    // Random numbers: generator algorithm (any RandomGeneratorFactory name) and the experiment's
+    // master seed, from which every run's seed and time budget are drawn (0 picks a new one).
+    public static final String RNG_ALGORITHM = "SplittableRandom";
+    public static final long SEED = 0;
+
     // Random Search (RS) parameters (iterations are used as fallback if time-limit not applied)
     public static final int RS_ITERATIONS = 10;
     // Random Walk (RW) parameters
@@ -13,6 +61,43 @@ public class Config {
     // Greedy and Steepest Descent (G and S) parameters used for dynamic time-budget estimation.
     public static final int GS_MAX_ITERATIONS = 10000;
     public static final int GS_RANDOM_STARTS = 10;
+    // Candidate list length per facility for the restricted 3-opt neighborhood.
+    public static final int THREE_OPT_CANDIDATES = 10;
+    // Threads used to run the random starts of G and S concurrently (1 = sequential).
+    // Results are identical for a fixed seed whatever this is set to.
+    public static final int MULTISTART_PARALLELISM = 1;
+
+    // Simulated annealing variants: SA-LM cools by Lundy-Mees with beta relative to the initial
+    // temperature (T0 / (1 + k * beta) after k chains, so 100 reaches 1e-4 T0 in about as many
+    // chains as SA's geometric 0.9), and SA-reheat raises the temperature back to
+    // SA_REHEAT_FRACTION of T0 after SA_REHEAT_PATIENCE chains without a new best.
+    public static final double SA_LUNDY_MEES_BETA = 100;
+    public static final int SA_REHEAT_PATIENCE = 20;
+    public static final double SA_REHEAT_FRACTION = 0.3;
+
+    // Algorithms that start threads of their own (PT, IM, MA, and G and S with
+    // MULTISTART_PARALLELISM > 1) run with no other experiment cell alongside (see
+    // ExperimentScheduler), so their thread counts below may use every core.
+
+    // Parallel tempering (PT): number of replicas (one thread each), proposals each replica
+    // makes between exchange rounds, and the coldest temperature as a fraction of the hottest.
+    public static final int PT_REPLICAS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    public static final int PT_EXCHANGE_INTERVAL = 1000;
+    public static final double PT_MIN_TEMPERATURE_RATIO = 0.01;
+
+    // Island model (IM): number of islands (one thread each) and how many migration
+    // epochs the time budget is divided into.
+    public static final int ISLAND_COUNT = Runtime.getRuntime().availableProcessors();
+    public static final int ISLAND_EPOCHS = 20;
+
+    // Memetic algorithm (MA): population size, offspring per generation, probability that an
+    // offspring is mutated, threads for the offspring local searches, and generations without a
+    // surviving offspring before the population is restarted around its best individual.
+    public static final int MA_POPULATION_SIZE = 20;
+    public static final int MA_OFFSPRING = 20;
+    public static final double MA_MUTATION_RATE = 0.2;
+    public static final int MA_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public static final int MA_RESTART_GENERATIONS = 30;
 
     // Nearest Neighbor (heuristic) parameters:
     // If NN_RANDOM_START is true, a random facility is chosen;
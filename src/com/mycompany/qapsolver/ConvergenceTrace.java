@@ -0,0 +1,165 @@
+package com.mycompany.qapsolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Best-fitness-over-time samples of one run (an anytime curve), kept in a
+ * fixed-size lock-free ring buffer.
+ *
+ * Searches report every new best fitness, possibly from several threads at once.
+ * Reports that do not beat the best fitness seen so far cost one atomic read.
+ * Improvements are sampled: one arriving less than minIntervalNs after the last
+ * stored sample only lowers the best and is stored by the next sample or, with
+ * the time and evaluations at which it was reached, by finish(). Writers claim a
+ * slot with getAndIncrement and publish it with a release write of its sequence
+ * number, so readers never see a half-written sample. Once the ring is full, the
+ * oldest samples are overwritten and counted as dropped.
+ */
+public class ConvergenceTrace {
+    /**
+     * One sample: time since the trace (re)started, best fitness at that time, and
+     * the run's evaluations so far, as the reporting search counts them.
+     */
+    public static final class Sample {
+        private final long timeNs;
+        private final long fitness;
+        private final long evaluations;
+
+        private Sample(long timeNs, long fitness, long evaluations) {
+            this.timeNs = timeNs;
+            this.fitness = fitness;
+            this.evaluations = evaluations;
+        }
+
+        public long getTimeNs() {
+            return timeNs;
+        }
+
+        public long getFitness() {
+            return fitness;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+    }
+
+    private final int mask;
+    private final long minIntervalNs;
+    // Sample k lives in slot k & mask, with published[slot] == k + 1 once it is complete.
+    private final AtomicLongArray times;
+    private final AtomicLongArray fitnesses;
+    private final AtomicLongArray evaluations;
+    private final AtomicLongArray published;
+    private final AtomicLong next = new AtomicLong();
+
+    private final AtomicLong best = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastSampleNs = new AtomicLong();
+    private final AtomicLong lastSampledFitness = new AtomicLong(Long.MAX_VALUE);
+    // Lowest improvement the sampling skipped, as {time, fitness, evaluations}, or null.
+    private final AtomicReference<long[]> skipped = new AtomicReference<>();
+    private volatile long originNs = System.nanoTime();
+
+    /**
+     * @param capacity      samples kept, rounded up to a power of two
+     * @param minIntervalNs minimum spacing of stored samples (0 stores every improvement)
+     */
+    public ConvergenceTrace(int capacity, long minIntervalNs) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.minIntervalNs = minIntervalNs;
+        this.times = new AtomicLongArray(size);
+        this.fitnesses = new AtomicLongArray(size);
+        this.evaluations = new AtomicLongArray(size);
+        this.published = new AtomicLongArray(size);
+    }
+
+    /**
+     * Clears the trace and makes now its time origin. Not safe against concurrent record() calls.
+     */
+    public void restart() {
+        for (int slot = 0; slot <= mask; slot++) {
+            published.set(slot, 0);
+        }
+        next.set(0);
+        best.set(Long.MAX_VALUE);
+        lastSampledFitness.set(Long.MAX_VALUE);
+        skipped.set(null);
+        originNs = System.nanoTime();
+        lastSampleNs.set(originNs - minIntervalNs);
+    }
+
+    /**
+     * Reports a fitness reached by the search; anything not better than the best reported so far is ignored.
+     */
+    public void record(long fitness, long evaluationsSoFar) {
+        long current = best.get();
+        while (fitness < current) {
+            if (best.compareAndSet(current, fitness)) {
+                long now = System.nanoTime();
+                long last = lastSampleNs.get();
+                if (now - last >= minIntervalNs && lastSampleNs.compareAndSet(last, now)) {
+                    store(now, best.get(), evaluationsSoFar);
+                } else {
+                    long[] candidate = {now, fitness, evaluationsSoFar};
+                    skipped.accumulateAndGet(candidate, (kept, c) -> kept == null || c[1] < kept[1] ? c : kept);
+                }
+                return;
+            }
+            current = best.get();
+        }
+    }
+
+    /**
+     * Stores the best fitness if the sampling skipped it, timed when it was reached,
+     * so the curve ends at the run's result. Call it once the search has stopped.
+     */
+    public void finish() {
+        long fitness = best.get();
+        long[] pending = skipped.get();
+        // Every improvement that was not stored went through skipped, so the best one is there.
+        if (pending != null && pending[1] == fitness && fitness < lastSampledFitness.get()) {
+            store(pending[0], fitness, pending[2]);
+        }
+    }
+
+    private void store(long now, long fitness, long evaluationsSoFar) {
+        lastSampledFitness.accumulateAndGet(fitness, Math::min);
+        long k = next.getAndIncrement();
+        int slot = (int) (k & mask);
+        times.setPlain(slot, now - originNs);
+        fitnesses.setPlain(slot, fitness);
+        evaluations.setPlain(slot, evaluationsSoFar);
+        published.setRelease(slot, k + 1);
+    }
+
+    /**
+     * The samples still in the ring, oldest first. Samples being written or overwritten
+     * while this runs are left out.
+     */
+    public List<Sample> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - (mask + 1));
+        List<Sample> samples = new ArrayList<>((int) (end - start));
+        for (long k = start; k < end; k++) {
+            int slot = (int) (k & mask);
+            if (published.getAcquire(slot) != k + 1) {
+                continue;
+            }
+            Sample sample = new Sample(times.get(slot), fitnesses.get(slot), evaluations.get(slot));
+            if (published.get(slot) == k + 1) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    // Samples overwritten because the ring was full.
+    public long getDropped() {
+        return Math.max(0, next.get() - (mask + 1));
+    }
+}
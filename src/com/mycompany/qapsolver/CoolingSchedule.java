@@ -0,0 +1,20 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Temperature update rule for simulated annealing, applied once per Markov chain.
+ * Implementations may keep state between calls; reset() is called at the start of
+ * every run with the temperature the run starts from.
+ */
+public interface CoolingSchedule {
+
+    default void reset(double initialTemperature) {
+    }
+
+    /**
+     * Returns the temperature of the next chain.
+     *
+     * @param temperature the temperature of the chain that just finished
+     * @param improved    whether that chain improved the best solution
+     */
+    double next(double temperature, boolean improved);
+}
@@ -0,0 +1,14 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Alternative implementation of the two DeltaEvaluator hot loops: the full cost
+ * of a permutation and the O(n) swap delta. Kernels only need to handle the
+ * instances they were created for and keep any scratch buffers per instance,
+ * since every DeltaEvaluator gets its own kernel and stays on one thread.
+ */
+interface CostKernel {
+    long cost(int[] p);
+
+    // Cost change of swapping positions r != s of p, without modifying p.
+    long swapDelta(int[] p, int r, int s);
+}
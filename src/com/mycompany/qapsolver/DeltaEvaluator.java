@@ -0,0 +1,275 @@
+package com.mycompany.qapsolver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Computes the cost change of a 2-swap move in O(n) instead of re-evaluating
+ * the whole O(n^2) objective.
+ *
+ * For a permutation p (facility i placed at location p[i]), swapping the
+ * locations of facilities r and s changes the cost by
+ *
+ *   (f[r][r] - f[s][s]) * (d[p[s]][p[s]] - d[p[r]][p[r]])
+ * + (f[r][s] - f[s][r]) * (d[p[s]][p[r]] - d[p[r]][p[s]])
+ * + sum over k != r,s of
+ *     (f[k][r] - f[k][s]) * (d[p[k]][p[s]] - d[p[k]][p[r]])
+ *   + (f[r][k] - f[s][k]) * (d[p[s]][p[k]] - d[p[r]][p[k]])
+ *
+ * which is exact for asymmetric matrices and non-zero diagonals.
+ *
+ * Costs are reported as long. The loops accumulate in int when the instance's
+ * matrix bounds rule out overflow (see Problem.isIntArithmeticSafe()), and in
+ * long otherwise, so large-valued instances stay exact without slowing down
+ * the small ones.
+ *
+ * Int-safe instances of at least Config.VECTOR_MIN_SIZE facilities can use a
+ * VectorCostKernel instead of the scalar loops. It is compiled only by the
+ * "vector" Maven profile and needs the JVM to run with
+ * --add-modules jdk.incubator.vector; it is looked up reflectively once, and the
+ * scalar loops are used whenever it is missing.
+ */
+public class DeltaEvaluator {
+    private final int[] flow;
+    private final int[] distance;
+    private final int[] flowTransposed;
+    private final int[] distanceTransposed;
+    private final boolean symmetric;
+    // True when Problem has proven that no cost or delta can overflow an int.
+    private final boolean intSafe;
+    private final int size;
+    // Vectorized loops for this instance, or null to use the scalar ones.
+    private final CostKernel kernel;
+
+    // Constructor of the vector kernel, or null when it is not available in this build or JVM.
+    private static final Constructor<? extends CostKernel> VECTOR_KERNEL = findVectorKernel();
+
+    // Number of delta evaluations performed, reported alongside full evaluations.
+    private long evaluationsCount = 0;
+
+    public DeltaEvaluator(Problem problem) {
+        this.flow = problem.getFlowData();
+        this.distance = problem.getDistanceData();
+        this.flowTransposed = problem.getFlowDataTransposed();
+        this.distanceTransposed = problem.getDistanceDataTransposed();
+        this.symmetric = problem.isSymmetric();
+        this.intSafe = problem.isIntArithmeticSafe();
+        this.size = problem.getSize();
+        this.kernel = VECTOR_KERNEL != null && intSafe && size >= Config.VECTOR_MIN_SIZE
+                ? newVectorKernel(problem) : null;
+    }
+
+    private static Constructor<? extends CostKernel> findVectorKernel() {
+        if (!Config.VECTOR_EVALUATION || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName("com.mycompany.qapsolver.VectorCostKernel")
+                    .asSubclass(CostKernel.class)
+                    .getDeclaredConstructor(Problem.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static CostKernel newVectorKernel(Problem problem) {
+        try {
+            return VECTOR_KERNEL.newInstance(problem);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Vector kernel failed to initialize", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Vector kernel is not accessible", e);
+        }
+    }
+
+    /**
+     * True when DeltaEvaluators of sufficiently large int-safe instances use the
+     * Vector API kernel.
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_KERNEL != null;
+    }
+
+    /**
+     * Full O(n^2) cost of a solution, counted like any other evaluation and cached
+     * on the solution. Lets callers that keep their own evaluator (e.g. parallel
+     * tasks) avoid sharing the owning Algorithm's counters.
+     */
+    public long evaluate(Solution sol) {
+        evaluationsCount++;
+        long fitness = cost(sol.getAssignment());
+        sol.setFitness(fitness);
+        return fitness;
+    }
+
+    /**
+     * Full cost of the permutation p without touching the counters.
+     * Symmetric instances only visit each pair once.
+     */
+    public long cost(int[] p) {
+        if (kernel != null) {
+            return kernel.cost(p);
+        }
+        if (intSafe) {
+            return symmetric ? costSymmetricInt(p) : costInt(p);
+        }
+        return symmetric ? costSymmetricLong(p) : costLong(p);
+    }
+
+    private int costSymmetricInt(int[] p) {
+        int n = size;
+        int cost = 0;
+        int twice = 0;
+        for (int i = 0; i < n; i++) {
+            int rowF = i * n;
+            int rowD = p[i] * n;
+            cost += flow[rowF + i] * distance[rowD + p[i]];
+            for (int j = i + 1; j < n; j++) {
+                twice += flow[rowF + j] * distance[rowD + p[j]];
+            }
+        }
+        return cost + 2 * twice;
+    }
+
+    private int costInt(int[] p) {
+        int n = size;
+        int cost = 0;
+        for (int i = 0; i < n; i++) {
+            int rowF = i * n;
+            int rowD = p[i] * n;
+            for (int j = 0; j < n; j++) {
+                cost += flow[rowF + j] * distance[rowD + p[j]];
+            }
+        }
+        return cost;
+    }
+
+    private long costSymmetricLong(int[] p) {
+        int n = size;
+        long cost = 0;
+        long twice = 0;
+        for (int i = 0; i < n; i++) {
+            int rowF = i * n;
+            int rowD = p[i] * n;
+            cost += (long) flow[rowF + i] * distance[rowD + p[i]];
+            for (int j = i + 1; j < n; j++) {
+                twice += (long) flow[rowF + j] * distance[rowD + p[j]];
+            }
+        }
+        return cost + 2 * twice;
+    }
+
+    private long costLong(int[] p) {
+        int n = size;
+        long cost = 0;
+        for (int i = 0; i < n; i++) {
+            int rowF = i * n;
+            int rowD = p[i] * n;
+            for (int j = 0; j < n; j++) {
+                cost += (long) flow[rowF + j] * distance[rowD + p[j]];
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Returns the cost change caused by swapping positions r and s of the solution.
+     * The solution itself is not modified.
+     */
+    public long swapDelta(Solution sol, int r, int s) {
+        return swapDelta(sol.getAssignment(), r, s);
+    }
+
+    public long swapDelta(int[] p, int r, int s) {
+        evaluationsCount++;
+        if (r == s) {
+            return 0;
+        }
+        if (kernel != null) {
+            return kernel.swapDelta(p, r, s);
+        }
+        return intSafe ? swapDeltaInt(p, r, s) : swapDeltaLong(p, r, s);
+    }
+
+    private int swapDeltaInt(int[] p, int r, int s) {
+        int n = size;
+        int pr = p[r];
+        int ps = p[s];
+        // Rows r and s of the flow matrix and rows p[r], p[s] of the distance matrix;
+        // the transposed arrays give the matching columns, so every read below stays
+        // within these few contiguous rows.
+        int fr = r * n;
+        int fs = s * n;
+        int dr = pr * n;
+        int ds = ps * n;
+
+        int delta = (flow[fr + r] - flow[fs + s]) * (distance[ds + ps] - distance[dr + pr]);
+        if (symmetric) {
+            // Both matrices symmetric: the two halves of each k term are equal.
+            int sum = 0;
+            for (int k = 0; k < n; k++) {
+                if (k == r || k == s) {
+                    continue;
+                }
+                int pk = p[k];
+                sum += (flow[fr + k] - flow[fs + k]) * (distance[ds + pk] - distance[dr + pk]);
+            }
+            return delta + 2 * sum;
+        }
+
+        delta += (flow[fr + s] - flow[fs + r]) * (distance[ds + pr] - distance[dr + ps]);
+        for (int k = 0; k < n; k++) {
+            if (k == r || k == s) {
+                continue;
+            }
+            int pk = p[k];
+            delta += (flowTransposed[fr + k] - flowTransposed[fs + k]) * (distanceTransposed[ds + pk] - distanceTransposed[dr + pk])
+                    + (flow[fr + k] - flow[fs + k]) * (distance[ds + pk] - distance[dr + pk]);
+        }
+        return delta;
+    }
+
+    // Same as swapDeltaInt, with every difference widened before it is multiplied.
+    private long swapDeltaLong(int[] p, int r, int s) {
+        int n = size;
+        int pr = p[r];
+        int ps = p[s];
+        int fr = r * n;
+        int fs = s * n;
+        int dr = pr * n;
+        int ds = ps * n;
+
+        long delta = ((long) flow[fr + r] - flow[fs + s]) * ((long) distance[ds + ps] - distance[dr + pr]);
+        if (symmetric) {
+            long sum = 0;
+            for (int k = 0; k < n; k++) {
+                if (k == r || k == s) {
+                    continue;
+                }
+                int pk = p[k];
+                sum += ((long) flow[fr + k] - flow[fs + k]) * ((long) distance[ds + pk] - distance[dr + pk]);
+            }
+            return delta + 2 * sum;
+        }
+
+        delta += ((long) flow[fr + s] - flow[fs + r]) * ((long) distance[ds + pr] - distance[dr + ps]);
+        for (int k = 0; k < n; k++) {
+            if (k == r || k == s) {
+                continue;
+            }
+            int pk = p[k];
+            delta += ((long) flowTransposed[fr + k] - flowTransposed[fs + k]) * ((long) distanceTransposed[ds + pk] - distanceTransposed[dr + pk])
+                    + ((long) flow[fr + k] - flow[fs + k]) * ((long) distance[ds + pk] - distance[dr + pk]);
+        }
+        return delta;
+    }
+
+    // Lets incremental caches report the moves they re-score without calling swapDelta().
+    void addEvaluations(long count) {
+        evaluationsCount += count;
+    }
+
+    public long getEvaluationsCount() {
+        return evaluationsCount;
+    }
+}
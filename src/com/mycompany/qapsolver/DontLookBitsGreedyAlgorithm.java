@@ -0,0 +1,61 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Multi-start first-improvement 2-swap local search with don't-look bits.
+ *
+ * Instead of sampling random neighbors, each start scans positions in order,
+ * beginning where the previous improvement was found, and for position i tries
+ * the swaps with every other position, scored by the O(n) swap delta. The first
+ * improving swap is taken. A position whose swaps all failed gets its don't-look
+ * bit set and is skipped until one of its swaps' partners moves, i.e. until a swap
+ * involving it is applied. The start ends when every bit is set, maxIterations
+ * swaps have been made or the termination's wall deadline has passed.
+ */
+public class DontLookBitsGreedyAlgorithm extends LocalSearchAlgorithm {
+
+    public DontLookBitsGreedyAlgorithm(Problem problem, int maxIterations, int randomStarts) {
+        super(problem, maxIterations, randomStarts);
+    }
+
+    @Override
+    protected long localSearch(StartState start, long currentFitness) {
+        Solution working = start.solution;
+        int[] p = working.getAssignment();
+        int n = problem.getSize();
+        boolean[] dontLook = new boolean[n];
+        int looking = n;
+        int first = 0;
+
+        while (looking > 0 && start.steps < maxIterations && !pastDeadline()) {
+            boolean improvement = false;
+            for (int a = 0; a < n && !improvement; a++) {
+                int i = first + a < n ? first + a : first + a - n;
+                if (dontLook[i]) {
+                    continue;
+                }
+                for (int b = 1; b < n; b++) {
+                    int j = i + b < n ? i + b : i + b - n;
+                    long delta = start.deltaEvaluator.swapDelta(p, i, j);
+                    if (delta < 0) {
+                        working.swap(i, j);
+                        currentFitness += delta;
+                        start.steps++;
+                        if (dontLook[j]) {
+                            dontLook[j] = false;
+                            looking++;
+                        }
+                        // Resume the scan at i, which may still have improving swaps.
+                        first = i;
+                        improvement = true;
+                        break;
+                    }
+                }
+                if (!improvement) {
+                    dontLook[i] = true;
+                    looking--;
+                }
+            }
+        }
+        return currentFitness;
+    }
+}
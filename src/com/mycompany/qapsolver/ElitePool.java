@@ -0,0 +1,121 @@
+package com.mycompany.qapsolver;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+/**
+ * Bounded pool of good, mutually different solutions shared by concurrent searches.
+ *
+ * The pool is an immutable array sorted by fitness behind an AtomicReference.
+ * Readers take the current array without locking; writers build a new array and
+ * install it with compareAndSet, retrying if another thread got there first.
+ * Most publications are rejected by a read-only check (pool full and not better
+ * than the worst entry), so contention stays low even with many publishers.
+ *
+ * Diversity: a solution whose similarityTo() an entry is at least maxSimilarity
+ * counts as a duplicate of it and only replaces that entry when it is better.
+ */
+public class ElitePool {
+    private final int capacity;
+    private final double maxSimilarity;
+    private final AtomicReference<Entry[]> entries = new AtomicReference<>(new Entry[0]);
+
+    /**
+     * An entry of the pool. The solution is a private copy and must not be modified.
+     */
+    public static final class Entry {
+        private final Solution solution;
+        private final long fitness;
+
+        private Entry(Solution solution, long fitness) {
+            this.solution = solution;
+            this.fitness = fitness;
+        }
+
+        public Solution getSolution() {
+            return solution;
+        }
+
+        public long getFitness() {
+            return fitness;
+        }
+    }
+
+    public ElitePool(int capacity, double maxSimilarity) {
+        this.capacity = Math.max(1, capacity);
+        this.maxSimilarity = maxSimilarity;
+    }
+
+    /**
+     * Offers a solution to the pool; a copy is stored if it is accepted.
+     *
+     * @return true if the pool changed
+     */
+    public boolean publish(Solution solution, long fitness) {
+        Entry candidate = null;
+        while (true) {
+            Entry[] current = entries.get();
+            if (current.length == capacity && fitness >= current[current.length - 1].fitness) {
+                return false;
+            }
+            int duplicate = -1;
+            for (int k = 0; k < current.length; k++) {
+                if (current[k].solution.similarityTo(solution) >= maxSimilarity) {
+                    duplicate = k;
+                    break;
+                }
+            }
+            if (duplicate >= 0 && fitness >= current[duplicate].fitness) {
+                return false;
+            }
+            if (candidate == null) {
+                candidate = new Entry(Solution.copyOf(solution), fitness);
+            }
+            if (entries.compareAndSet(current, insert(current, candidate, duplicate))) {
+                return true;
+            }
+        }
+    }
+
+    // Copy of current with candidate in fitness order, minus the duplicate it replaces or the worst entry if full.
+    private Entry[] insert(Entry[] current, Entry candidate, int duplicate) {
+        int keep = duplicate >= 0 || current.length < capacity ? current.length : current.length - 1;
+        Entry[] next = new Entry[duplicate >= 0 ? current.length : keep + 1];
+        int out = 0;
+        boolean placed = false;
+        for (int k = 0; k < keep; k++) {
+            if (k == duplicate) {
+                continue;
+            }
+            if (!placed && candidate.fitness < current[k].fitness) {
+                next[out++] = candidate;
+                placed = true;
+            }
+            next[out++] = current[k];
+        }
+        if (!placed) {
+            next[out] = candidate;
+        }
+        return next;
+    }
+
+    /**
+     * Best entry, or null while the pool is empty.
+     */
+    public Entry best() {
+        Entry[] current = entries.get();
+        return current.length == 0 ? null : current[0];
+    }
+
+    /**
+     * Uniformly chosen entry, or null while the pool is empty.
+     */
+    public Entry sample(RandomGenerator rand) {
+        Entry[] current = entries.get();
+        return current.length == 0 ? null : current[rand.nextInt(current.length)];
+    }
+
+    public int size() {
+        return entries.get().length;
+    }
+}
@@ -2,6 +2,7 @@ package com.mycompany.qapsolver;
 
 import java.io.*;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class ExperimentRunner {
     public interface AlgorithmFactory {
@@ -9,6 +10,11 @@ public class ExperimentRunner {
         Algorithm create(Problem problem);
     }
 
+    // Columns of the rows produced by runCell().
+    static final String CSV_HEADER = "Instance,Algorithm,Run,InitialFitness,InitialSolution,FinalFitness,FinalSolution,"
+            + "TimeMs,Evaluations,Steps,EvalsPerSec,AcceptanceRate,GcCount,GcTimeMs,AllocatedBytes,Seed,StopReason,"
+            + "TargetFitness,TimeToTargetMs,Threads";
+
     private final List<AlgorithmFactory> algorithmFactories;
     private final String instancesDir;
     private final int runsPerInstance;
@@ -26,26 +32,30 @@ public class ExperimentRunner {
     }
 
     public static Set<String> getAllowedInstanceNames(String optimalCsvPath) throws IOException {
-        Set<String> allowed = new HashSet<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(optimalCsvPath))) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 0) {
-                    String name = parts[0].trim().toLowerCase();
-                    if (!name.isEmpty()) {
-                        allowed.add(name + ".dat");
-                    }
-                }
-            }
+        return new HashSet<>(KnownOptimum.load(optimalCsvPath).keySet());
+    }
+
+    /**
+     * Fitness at which runs on the instance count as having found its optimum (within
+     * Config.TARGET_GAP), or Long.MIN_VALUE when no optimum is listed. Warns when the
+     * listed permutation does not have the listed cost on the loaded instance.
+     */
+    static long targetFitness(String instanceName, Problem problem, Map<String, KnownOptimum> optima) {
+        KnownOptimum optimum = optima.get(instanceName.toLowerCase());
+        if (optimum == null) {
+            return Long.MIN_VALUE;
         }
-        return allowed;
+        if (optimum.solutionFor(problem) == null) {
+            System.err.println("Listed optimum of " + instanceName + " does not cost " + optimum.getValue()
+                    + " on the instance; using the value as target anyway");
+        }
+        return optimum.target(Config.TARGET_GAP);
     }
 
     public void runExperiments() throws IOException {
         File dir = new File(instancesDir);
-        Set<String> allowedFiles = getAllowedInstanceNames("optimal_data.csv");
+        Map<String, KnownOptimum> optima = KnownOptimum.load("optimal_data.csv");
+        Set<String> allowedFiles = optima.keySet();
 
         File[] instanceFiles = dir.listFiles((d, name) ->
                 allowedFiles.contains(name.toLowerCase())
@@ -57,11 +67,17 @@ public class ExperimentRunner {
         }
 
         PrintWriter pw = new PrintWriter(new FileWriter("experiment_results.csv"));
-        String csvHeader = "Instance,Algorithm,Run,InitialFitness,InitialSolution,FinalFitness,FinalSolution,TimeMs,Evaluations,Steps";
+        String csvHeader = CSV_HEADER;
         pw.println(csvHeader);
         System.out.println(csvHeader);
 
-        int successfulInstances = 0;
+        // Load instances and estimate their time budgets up front, before any cell runs,
+        // so the estimates are not distorted by concurrently running experiments.
+        Arrays.sort(instanceFiles, Comparator.comparing(File::getName));
+        List<String> instanceNames = new ArrayList<>();
+        List<Problem> problems = new ArrayList<>();
+        List<TimeBudgetRange> timeRanges = new ArrayList<>();
+        List<Long> targets = new ArrayList<>();
         for (File file : instanceFiles) {
             String instanceName = file.getName();
             System.out.println("Processing instance: " + instanceName);
@@ -72,56 +88,240 @@ public class ExperimentRunner {
                 System.err.println("Skipping instance " + instanceName + " due to error: " + e.getMessage());
                 continue;
             }
+            if (problems.size() >= maxInstances) break;
 
-            successfulInstances++;
-            if (successfulInstances > maxInstances) break;
-
+            instanceNames.add(instanceName);
+            problems.add(problem);
+            targets.add(targetFitness(instanceName, problem, optima));
             // Estimate time budget ONCE per instance
-            TimeBudgetRange timeRange = ExperimentRunnerHelper.estimateTimeBudgetRangeAll(
-                    problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS);
-            long baseTime = timeRange.maxTime;
-
-            for (AlgorithmFactory factory : algorithmFactories) {
-                for (int run = 1; run <= runsPerInstance; run++) {
-                    long startTime = TimeUtil.currentTime();
-                    Algorithm algorithm = factory.create(problem);
-
-                    String name = factory.getName();
-
-                    if ((name.equals("SA") || name.equals("TS")) && algorithm instanceof TimeLimitedAlgorithm) {
-                        ((TimeLimitedAlgorithm) algorithm).run(2 * baseTime);
-                    } else if (name.equals("RS") || name.equals("RW") || name.equals("H")) {
-                        if (algorithm instanceof TimeLimitedAlgorithm) {
-                            long timeBudget = timeRange.randomBudget();
-                            ((TimeLimitedAlgorithm) algorithm).run(timeBudget);
-                        } else {
-                            algorithm.run();
-                        }
-                    } else {
-                        algorithm.run();
-                    }
+            timeRanges.add(ExperimentRunnerHelper.estimateTimeBudgetRangeAll(
+                    problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS));
+        }
+
+        // Run seeds and budgets are drawn in submission order from one master seed, so the whole
+        // experiment can be repeated; each row also carries its own seed (setSeed() replays it).
+        RandomGenerator seeds = RandomSource.create(masterSeed());
 
-                    long elapsedNs = TimeUtil.currentTime() - startTime;
-                    double elapsedMs = elapsedNs / 1_000_000.0;
-                    int finalFitness = algorithm.getBestFitness();
-                    long evaluations = algorithm.getEvaluationsCount();
-                    long steps = algorithm.getStepsCount();
-
-                    String initSolStr = algorithm.getInitialSolution() != null ? algorithm.getInitialSolution().toString() : "NA";
-                    String line = instanceName + "," + name + "," + run + "," +
-                            algorithm.getInitialFitness() + ",\"" + initSolStr + "\"," +
-                            finalFitness + ",\"" + algorithm.getBestSolution().toString() + "\"," +
-                            elapsedMs + "," + evaluations + "," + steps;
+        try (ExperimentScheduler scheduler = new ExperimentScheduler(
+                Config.EXPERIMENT_THREADS, Config.EXPERIMENT_DEDICATED_TIMED_THREADS, line -> {
                     System.out.println(line);
                     pw.println(line);
+                })) {
+            for (int i = 0; i < problems.size(); i++) {
+                String instanceName = instanceNames.get(i);
+                Problem problem = problems.get(i);
+                TimeBudgetRange timeRange = timeRanges.get(i);
+                long baseTime = timeRange.maxTime;
+                long target = targets.get(i);
+
+                for (AlgorithmFactory factory : algorithmFactories) {
+                    // Shared by the time-limited runs of one algorithm on this instance when cooperative runs are enabled.
+                    ElitePool elitePool = Config.ELITE_POOL_SIZE > 0
+                            ? new ElitePool(Config.ELITE_POOL_SIZE, Config.ELITE_POOL_MAX_SIMILARITY) : null;
+                    // Each cell creates its algorithm when it starts, so only the running cells hold
+                    // one; this instance only tells how the cells are to be run.
+                    Algorithm probe = factory.create(problem);
+                    boolean timeLimited = probe instanceof TimeLimitedAlgorithm;
+                    // Parallel algorithms run alone, so their threads do not compete with other cells.
+                    boolean exclusive = probe.getThreads() > 1;
+                    for (int run = 1; run <= runsPerInstance; run++) {
+                        String name = factory.getName();
+                        long seed = seeds.nextLong();
+
+                        // Budgets are drawn here, in submission order, so they do not depend on scheduling.
+                        long timeBudget = -1;
+                        if ((name.equals("SA") || name.equals("SA-LM") || name.equals("SA-reheat")
+                                || name.equals("TS") || name.equals("RoTS")
+                                || name.equals("PT") || name.equals("IM")
+                                || name.equals("MA") || name.equals("ILS")) && timeLimited) {
+                            timeBudget = 2 * baseTime;
+                        } else if ((name.equals("RS") || name.equals("RW") || name.equals("H"))
+                                && timeLimited) {
+                            timeBudget = timeRange.randomBudget(seeds);
+                        }
+
+                        int runNumber = run;
+                        long budget = timeBudget;
+                        ElitePool pool = budget >= 0 ? elitePool : null;
+                        scheduler.submit(() -> {
+                            Algorithm algorithm = factory.create(problem);
+                            algorithm.setSeed(seed);
+                            return runCell(instanceName, name, runNumber, algorithm, budget, target, pool);
+                        }, budget >= 0, exclusive);
+                    }
                 }
             }
+            scheduler.awaitAll();
+        } finally {
+            pw.close();
         }
-
-        pw.close();
         System.out.println("Experiment results saved to experiment_results.csv");
     }
 
+    /**
+     * Config.SEED, or a new seed when it is 0; printed so the experiment can be repeated.
+     */
+    static long masterSeed() {
+        long seed = Config.SEED != 0 ? Config.SEED : RandomSource.newSeed();
+        System.out.println("Master seed: " + seed);
+        return seed;
+    }
+
+    /**
+     * Termination for a time-limited run: the time budget plus the criteria enabled in Config.
+     */
+    static Termination termination(long timeBudget) {
+        Termination termination = new Termination(timeBudget);
+        if (Config.MAX_EVALUATIONS > 0) {
+            termination.setMaxEvaluations(Config.MAX_EVALUATIONS);
+        }
+        if (Config.CPU_TIME_LIMIT_NS > 0) {
+            termination.setCpuTime(Config.CPU_TIME_LIMIT_NS);
+        }
+        if (Config.STAGNATION_ITERATIONS > 0) {
+            termination.setStagnation(Config.STAGNATION_ITERATIONS);
+        }
+        return termination;
+    }
+
+    /**
+     * Runs one algorithm (for timeBudget ns when it is non-negative) and formats its CSV row.
+     * StopReason is the criterion that ended a time-limited run, or NA when the
+     * algorithm stopped on its own.
+     *
+     * With a targetFitness (Long.MIN_VALUE for none), time-limited runs and the
+     * multi-start local searches stop on reaching it when Config.STOP_AT_TARGET is set.
+     * TimeToTargetMs is when their termination first saw it reached; for other
+     * algorithms that end at or below it, the whole run time. Otherwise it is NA.
+     * With an elite pool, the run starts from a pool entry, drawn with the algorithm's
+     * seeded generator, when there is one and publishes its best solution afterwards,
+     * so concurrent runs build on each other.
+     * The run's convergence trace is written to Config.TRACE_DIR when that is set.
+     * Threads is the number of threads the algorithm ran on.
+     */
+    static String runCell(String instanceName, String name, int run, Algorithm algorithm, long timeBudget,
+                          long targetFitness, ElitePool elitePool) {
+        if (elitePool != null) {
+            ElitePool.Entry start = elitePool.sample(algorithm.rand);
+            if (start != null) {
+                algorithm.setStartSolution(start.getSolution());
+            }
+        }
+        RunMetrics metrics = new RunMetrics();
+        ConvergenceTrace trace = null;
+        if (Config.TRACE_DIR != null) {
+            trace = new ConvergenceTrace(Config.TRACE_CAPACITY, Config.TRACE_MIN_INTERVAL_NS);
+            algorithm.setTrace(trace);
+            trace.restart();
+        }
+        Termination termination = null;
+        if (timeBudget >= 0) {
+            termination = termination(timeBudget);
+        } else if (algorithm instanceof LocalSearchAlgorithm && targetFitness != Long.MIN_VALUE) {
+            termination = new Termination();
+            ((LocalSearchAlgorithm) algorithm).setTermination(termination);
+        }
+        if (termination != null) {
+            termination.setTargetFitness(targetFitness);
+            termination.setStopAtTarget(Config.STOP_AT_TARGET);
+        }
+        metrics.begin();
+        if (timeBudget >= 0) {
+            ((TimeLimitedAlgorithm) algorithm).run(termination);
+        } else {
+            algorithm.run();
+        }
+        metrics.end(algorithm);
+
+        double elapsedMs = metrics.getElapsedNs() / 1_000_000.0;
+        long finalFitness = algorithm.getBestFitness();
+        long evaluations = algorithm.getEvaluationsCount();
+        long steps = algorithm.getStepsCount();
+        if (elitePool != null) {
+            elitePool.publish(algorithm.getBestSolution(), finalFitness);
+        }
+
+        // Algorithms that only know their best at the end (e.g. the multi-start searches) still end the curve there.
+        if (trace != null) {
+            trace.record(finalFitness, evaluations);
+            trace.finish();
+            writeTrace(new File(Config.TRACE_DIR, stripExtension(instanceName) + "-" + name + "-" + run + ".csv"), trace);
+        }
+
+        String initSolStr = algorithm.getInitialSolution() != null ? algorithm.getInitialSolution().toString() : "NA";
+        String stopReason = termination != null && termination.getReason() != null ? termination.getReason().name() : "NA";
+        String target = targetFitness != Long.MIN_VALUE ? Long.toString(targetFitness) : "NA";
+        String timeToTarget = "NA";
+        if (termination != null && termination.getTimeToTarget() >= 0) {
+            timeToTarget = Double.toString(termination.getTimeToTarget() / 1_000_000.0);
+        } else if (targetFitness != Long.MIN_VALUE && finalFitness <= targetFitness) {
+            timeToTarget = Double.toString(elapsedMs);
+        }
+        return instanceName + "," + name + "," + run + "," +
+                algorithm.getInitialFitness() + ",\"" + initSolStr + "\"," +
+                finalFitness + ",\"" + algorithm.getBestSolution().toString() + "\"," +
+                elapsedMs + "," + evaluations + "," + steps + "," +
+                metrics.getEvaluationsPerSecond() + "," + metrics.getAcceptanceRate() + "," +
+                metrics.getGcCount() + "," + metrics.getGcTimeMs() + "," + metrics.getAllocatedBytes() + "," +
+                algorithm.getSeed() + "," + stopReason + "," + target + "," + timeToTarget + "," + algorithm.getThreads();
+    }
+
+    /**
+     * Writes a convergence trace as CSV (TimeMs,BestFitness,Evaluations). A failure is
+     * reported but does not fail the run.
+     */
+    static void writeTrace(File file, ConvergenceTrace trace) {
+        File dir = file.getParentFile();
+        if (dir != null) {
+            dir.mkdirs();
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("TimeMs,BestFitness,Evaluations");
+            for (ConvergenceTrace.Sample sample : trace.snapshot()) {
+                out.println(sample.getTimeNs() / 1_000_000.0 + "," + sample.getFitness() + "," + sample.getEvaluations());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write trace " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Island line-up for the island model: Config.ISLAND_COUNT islands cycling through
+     * robust tabu search, simulated annealing and single-start steepest descent.
+     */
+    static List<AlgorithmFactory> defaultIslands() {
+        AlgorithmFactory[] kinds = {
+            new AlgorithmFactory() {
+                public String getName() { return "RoTS"; }
+                public Algorithm create(Problem problem) {
+                    return new RobustTabuSearchAlgorithm(problem);
+                }
+            },
+            new AlgorithmFactory() {
+                public String getName() { return "SA"; }
+                public Algorithm create(Problem problem) {
+                    return new SimulatedAnnealingAlgorithm(problem);
+                }
+            },
+            new AlgorithmFactory() {
+                public String getName() { return "S-2swap"; }
+                public Algorithm create(Problem problem) {
+                    return new MultiStartSteepestDescentAlgorithm(problem, Config.GS_MAX_ITERATIONS, 1, new TwoSwapOperator());
+                }
+            }
+        };
+        List<AlgorithmFactory> islands = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, Config.ISLAND_COUNT); i++) {
+            islands.add(kinds[i % kinds.length]);
+        }
+        return islands;
+    }
+
     public static void main(String[] args) {
         if (args.length < 1) {
             System.out.println("Usage: java com.mycompany.qapsolver.ExperimentRunner <instancesDir>");
@@ -129,6 +329,7 @@ public class ExperimentRunner {
         }
 
         String instancesDir = args[0];
+        System.out.println("Cost evaluation: " + (DeltaEvaluator.isVectorAvailable() ? "Vector API" : "scalar"));
         ExperimentRunner runner = new ExperimentRunner(instancesDir, Config.RUNS_PER_INSTANCE, Config.MAX_INSTANCES);
 
         // Register algorithms
@@ -156,24 +357,87 @@ public class ExperimentRunner {
                 return new MultiStartGreedyAlgorithm(problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS, new TwoSwapOperator());
             }
         });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "G-dlb"; }
+            public Algorithm create(Problem problem) {
+                return new DontLookBitsGreedyAlgorithm(problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS);
+            }
+        });
         runner.registerAlgorithm(new AlgorithmFactory() {
             public String getName() { return "S-2swap"; }
             public Algorithm create(Problem problem) {
                 return new MultiStartSteepestDescentAlgorithm(problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS, new TwoSwapOperator());
             }
         });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "G-3opt"; }
+            public Algorithm create(Problem problem) {
+                return new ThreeOptLocalSearchAlgorithm(problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS,
+                        new ThreeOptOperator(problem, Config.THREE_OPT_CANDIDATES), true);
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "S-3opt"; }
+            public Algorithm create(Problem problem) {
+                return new ThreeOptLocalSearchAlgorithm(problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS,
+                        new ThreeOptOperator(problem, Config.THREE_OPT_CANDIDATES), false);
+            }
+        });
         runner.registerAlgorithm(new AlgorithmFactory() {
             public String getName() { return "SA"; }
             public Algorithm create(Problem problem) {
                 return new SimulatedAnnealingAlgorithm(problem);
             }
         });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "SA-LM"; }
+            public Algorithm create(Problem problem) {
+                return new SimulatedAnnealingAlgorithm(problem, new LundyMeesCooling(Config.SA_LUNDY_MEES_BETA));
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "SA-reheat"; }
+            public Algorithm create(Problem problem) {
+                return new SimulatedAnnealingAlgorithm(problem, new ReheatingCooling(
+                        new GeometricCooling(0.9), Config.SA_REHEAT_PATIENCE, Config.SA_REHEAT_FRACTION));
+            }
+        });
         runner.registerAlgorithm(new AlgorithmFactory() {
             public String getName() { return "TS"; }
             public Algorithm create(Problem problem) {
                 return new TabuSearchAlgorithm(problem);
             }
         });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "RoTS"; }
+            public Algorithm create(Problem problem) {
+                return new RobustTabuSearchAlgorithm(problem);
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "PT"; }
+            public Algorithm create(Problem problem) {
+                return new ParallelTemperingAlgorithm(problem);
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "IM"; }
+            public Algorithm create(Problem problem) {
+                return new IslandModelAlgorithm(problem, defaultIslands());
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "MA"; }
+            public Algorithm create(Problem problem) {
+                return new MemeticAlgorithm(problem);
+            }
+        });
+        runner.registerAlgorithm(new AlgorithmFactory() {
+            public String getName() { return "ILS"; }
+            public Algorithm create(Problem problem) {
+                return new IteratedLocalSearchAlgorithm(problem);
+            }
+        });
 
         try {
             runner.runExperiments();
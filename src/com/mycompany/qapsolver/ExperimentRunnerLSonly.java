@@ -2,6 +2,7 @@ package com.mycompany.qapsolver;
 
 import java.io.*;
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class ExperimentRunnerLSonly {
     public interface AlgorithmFactory {
@@ -26,26 +27,13 @@ public class ExperimentRunnerLSonly {
     }
 
     public static Set<String> getAllowedInstanceNames(String optimalCsvPath) throws IOException {
-        Set<String> allowed = new HashSet<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(optimalCsvPath))) {
-            String line;
-            br.readLine(); // skip header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 0) {
-                    String name = parts[0].trim().toLowerCase();
-                    if (!name.isEmpty()) {
-                        allowed.add(name + ".dat");
-                    }
-                }
-            }
-        }
-        return allowed;
+        return ExperimentRunner.getAllowedInstanceNames(optimalCsvPath);
     }
 
     public void runExperiments() throws IOException {
         File dir = new File(instancesDir);
-        Set<String> allowedFiles = getAllowedInstanceNames("optimal_data.csv");
+        Map<String, KnownOptimum> optima = KnownOptimum.load("optimal_data.csv");
+        Set<String> allowedFiles = optima.keySet();
 
         File[] instanceFiles = dir.listFiles((d, name) ->
                 allowedFiles.contains(name.toLowerCase())
@@ -56,11 +44,16 @@ public class ExperimentRunnerLSonly {
         }
 
         PrintWriter pw = new PrintWriter(new FileWriter("experiment_results_ls.csv"));
-        String csvHeader = "Instance,Algorithm,Run,InitialFitness,InitialSolution,FinalFitness,FinalSolution,TimeMs,Evaluations,Steps";
+        String csvHeader = ExperimentRunner.CSV_HEADER;
         pw.println(csvHeader);
         System.out.println(csvHeader);
 
-        int successfulInstances = 0;
+        // Load and estimate every instance before scheduling any runs (see ExperimentRunner).
+        Arrays.sort(instanceFiles, Comparator.comparing(File::getName));
+        List<String> instanceNames = new ArrayList<>();
+        List<Problem> problems = new ArrayList<>();
+        List<TimeBudgetRange> timeRanges = new ArrayList<>();
+        List<Long> targets = new ArrayList<>();
         for (File file : instanceFiles) {
             String instanceName = file.getName();
             System.out.println("Processing instance: " + instanceName);
@@ -71,45 +64,52 @@ public class ExperimentRunnerLSonly {
                 System.err.println("Skipping instance " + instanceName + " due to error: " + e.getMessage());
                 continue;
             }
+            if (problems.size() >= maxInstances) break;
 
-            successfulInstances++;
-            if (successfulInstances > maxInstances) break;
-
+            instanceNames.add(instanceName);
+            problems.add(problem);
+            targets.add(ExperimentRunner.targetFitness(instanceName, problem, optima));
             // Estimate once for this instance
-            TimeBudgetRange timeRange = ExperimentRunnerHelper.estimateTimeBudgetRangeAll(
-                    problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS);
-            long baseTime = timeRange.maxTime;
-
-            for (AlgorithmFactory factory : algorithmFactories) {
-                for (int run = 1; run <= runsPerInstance; run++) {
-                    long startTime = TimeUtil.currentTime();
-                    Algorithm algorithm = factory.create(problem);
-
-                    String name = factory.getName();
-                    if ((name.equals("SA") || name.equals("TS")) && algorithm instanceof TimeLimitedAlgorithm) {
-                        ((TimeLimitedAlgorithm) algorithm).run(2 * baseTime);
-                    } else {
-                        algorithm.run();
-                    }
+            timeRanges.add(ExperimentRunnerHelper.estimateTimeBudgetRangeAll(
+                    problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS));
+        }
+
+        // Run seeds come from one master seed, as in ExperimentRunner.
+        RandomGenerator seeds = RandomSource.create(ExperimentRunner.masterSeed());
 
-                    long elapsedNs = TimeUtil.currentTime() - startTime;
-                    double elapsedMs = elapsedNs / 1_000_000.0;
-                    int finalFitness = algorithm.getBestFitness();
-                    long evaluations = algorithm.getEvaluationsCount();
-                    long steps = algorithm.getStepsCount();
-
-                    String initSolStr = algorithm.getInitialSolution() != null ? algorithm.getInitialSolution().toString() : "NA";
-                    String line = instanceName + "," + name + "," + run + "," +
-                            algorithm.getInitialFitness() + ",\"" + initSolStr + "\"," +
-                            finalFitness + ",\"" + algorithm.getBestSolution().toString() + "\"," +
-                            elapsedMs + "," + evaluations + "," + steps;
+        try (ExperimentScheduler scheduler = new ExperimentScheduler(
+                Config.EXPERIMENT_THREADS, Config.EXPERIMENT_DEDICATED_TIMED_THREADS, line -> {
                     System.out.println(line);
                     pw.println(line);
+                })) {
+            for (int i = 0; i < problems.size(); i++) {
+                String instanceName = instanceNames.get(i);
+                Problem problem = problems.get(i);
+                long baseTime = timeRanges.get(i).maxTime;
+                long target = targets.get(i);
+
+                for (AlgorithmFactory factory : algorithmFactories) {
+                    // Cells create their algorithms when they start; see ExperimentRunner.
+                    Algorithm probe = factory.create(problem);
+                    for (int run = 1; run <= runsPerInstance; run++) {
+                        String name = factory.getName();
+                        long seed = seeds.nextLong();
+                        long timeBudget = (name.equals("SA") || name.equals("TS")) && probe instanceof TimeLimitedAlgorithm
+                                ? 2 * baseTime : -1;
+
+                        int runNumber = run;
+                        scheduler.submit(() -> {
+                            Algorithm algorithm = factory.create(problem);
+                            algorithm.setSeed(seed);
+                            return ExperimentRunner.runCell(instanceName, name, runNumber, algorithm, timeBudget, target, null);
+                        }, timeBudget >= 0, probe.getThreads() > 1);
+                    }
                 }
             }
+            scheduler.awaitAll();
+        } finally {
+            pw.close();
         }
-
-        pw.close();
         System.out.println("Experiment results saved to experiment_results_ls.csv");
     }
 
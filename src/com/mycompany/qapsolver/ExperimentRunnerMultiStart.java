@@ -27,7 +27,9 @@ public class ExperimentRunnerMultiStart {
         Arrays.sort(instanceFiles, Comparator.comparing(File::getName));
         int maxInstances = Math.min(3, instanceFiles.length);
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter("experiment_results_multistart.csv"))) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter("experiment_results_multistart.csv"));
+             ExperimentScheduler scheduler = new ExperimentScheduler(
+                     Config.EXPERIMENT_THREADS, Config.EXPERIMENT_DEDICATED_TIMED_THREADS, writer::print)) {
             writer.println("Instance,Algorithm,RandomStarts,Run,FinalFitness");
 
             for (int i = 0; i < maxInstances; i++) {
@@ -35,7 +37,8 @@ public class ExperimentRunnerMultiStart {
                 String instanceName = instanceFile.getName();
                 Problem problem = new Problem(instanceFile.getAbsolutePath());
 
-                // Estimate once per instance
+                // Estimate once per instance, before this instance's runs are scheduled.
+                scheduler.awaitAll();
                 TimeBudgetRange timeRange = ExperimentRunnerHelper.estimateTimeBudgetRangeAll(
                         problem, Config.GS_MAX_ITERATIONS, Config.GS_RANDOM_STARTS);
                 long saTsTimeBudget = 2 * timeRange.maxTime;
@@ -43,35 +46,50 @@ public class ExperimentRunnerMultiStart {
                 for (int restarts = 1; restarts <= 300; restarts++) {
                     for (int run = 1; run <= 5; run++) {
                         System.out.println("Running instance: " + instanceName + ", Restarts: " + restarts + ", Run: " + run);
+                        int r = restarts;
+                        int k = run;
 
                         // Greedy
-                        Algorithm greedy = new MultiStartGreedyAlgorithm(problem, Config.GS_MAX_ITERATIONS, 1, new TwoSwapOperator());
-                        greedy.run();
-                        writer.printf("%s,%s,%d,%d,%d%n", instanceName, "G-2swap", restarts, run, greedy.getBestFitness());
+                        scheduler.submit(() -> {
+                            Algorithm greedy = new MultiStartGreedyAlgorithm(problem, Config.GS_MAX_ITERATIONS, 1, new TwoSwapOperator());
+                            greedy.run();
+                            return row(instanceName, "G-2swap", r, k, greedy.getBestFitness());
+                        }, false);
 
                         // Steepest
-                        Algorithm steepest = new MultiStartSteepestDescentAlgorithm(problem, Config.GS_MAX_ITERATIONS, 1, new TwoSwapOperator());
-                        steepest.run();
-                        writer.printf("%s,%s,%d,%d,%d%n", instanceName, "S-2swap", restarts, run, steepest.getBestFitness());
+                        scheduler.submit(() -> {
+                            Algorithm steepest = new MultiStartSteepestDescentAlgorithm(problem, Config.GS_MAX_ITERATIONS, 1, new TwoSwapOperator());
+                            steepest.run();
+                            return row(instanceName, "S-2swap", r, k, steepest.getBestFitness());
+                        }, false);
 
                         // Simulated Annealing (run once per restart loop for fair comparison)
-                        Algorithm sa = new SimulatedAnnealingAlgorithm(problem);
-                        if (sa instanceof TimeLimitedAlgorithm) {
-                            ((TimeLimitedAlgorithm) sa).run(saTsTimeBudget);
-                        }
-                        writer.printf("%s,%s,%d,%d,%d%n", instanceName, "SA", restarts, run, sa.getBestFitness());
+                        scheduler.submit(() -> {
+                            Algorithm sa = new SimulatedAnnealingAlgorithm(problem);
+                            if (sa instanceof TimeLimitedAlgorithm) {
+                                ((TimeLimitedAlgorithm) sa).run(saTsTimeBudget);
+                            }
+                            return row(instanceName, "SA", r, k, sa.getBestFitness());
+                        }, true);
 
                         // Tabu Search (run once per restart loop for fair comparison)
-                        Algorithm ts = new TabuSearchAlgorithm(problem);
-                        if (ts instanceof TimeLimitedAlgorithm) {
-                            ((TimeLimitedAlgorithm) ts).run(saTsTimeBudget);
-                        }
-                        writer.printf("%s,%s,%d,%d,%d%n", instanceName, "TS", restarts, run, ts.getBestFitness());
+                        scheduler.submit(() -> {
+                            Algorithm ts = new TabuSearchAlgorithm(problem);
+                            if (ts instanceof TimeLimitedAlgorithm) {
+                                ((TimeLimitedAlgorithm) ts).run(saTsTimeBudget);
+                            }
+                            return row(instanceName, "TS", r, k, ts.getBestFitness());
+                        }, true);
                     }
                 }
             }
+            scheduler.awaitAll();
 
             System.out.println("Multi-start experiment results saved to experiment_results_multistart.csv");
         }
     }
+
+    private static String row(String instanceName, String algorithm, int restarts, int run, long fitness) {
+        return String.format("%s,%s,%d,%d,%d%n", instanceName, algorithm, restarts, run, fitness);
+    }
 }
@@ -0,0 +1,106 @@
+package com.mycompany.qapsolver;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs experiment cells (one algorithm run on one instance) concurrently on a
+ * bounded worker pool and hands their CSV rows to a sink in submission order,
+ * so the output file is identical to a serial run apart from the measured values.
+ *
+ * Time-limited cells can be given a dedicated pool. Java cannot pin threads to
+ * cores, so "dedicated" means those threads are reserved for timed runs and the
+ * two pools together never exceed the configured core count; a timed run then
+ * never waits behind, or shares a core with, an untimed one.
+ *
+ * Cells of algorithms that start threads of their own (PT, IM, MA) are submitted as
+ * exclusive: such a cell waits until the cells already running have finished, and
+ * later cells wait until it has, so it gets the whole machine and never shares its
+ * cores with a varying number of other cells. A fair read-write lock does this, the
+ * ordinary cells holding the read lock and exclusive ones the write lock.
+ */
+public class ExperimentScheduler implements AutoCloseable {
+    private final ExecutorService workers;
+    private final ExecutorService timedWorkers;
+    private final Consumer<String> sink;
+    private final Deque<Future<String>> pending = new ArrayDeque<>();
+    private final ReadWriteLock exclusion = new ReentrantReadWriteLock(true);
+
+    /**
+     * @param threads          total worker threads
+     * @param dedicatedTimed   threads reserved for time-limited cells (0 = share one pool)
+     * @param sink             receives each finished row, in submission order
+     */
+    public ExperimentScheduler(int threads, int dedicatedTimed, Consumer<String> sink) {
+        threads = Math.max(1, threads);
+        dedicatedTimed = Math.max(0, Math.min(dedicatedTimed, threads - 1));
+        this.workers = Executors.newFixedThreadPool(threads - dedicatedTimed);
+        this.timedWorkers = dedicatedTimed > 0 ? Executors.newFixedThreadPool(dedicatedTimed) : workers;
+        this.sink = sink;
+    }
+
+    /**
+     * Queues a cell. Rows that are already finished are written immediately.
+     */
+    public void submit(Callable<String> cell, boolean timeLimited) throws IOException {
+        submit(cell, timeLimited, false);
+    }
+
+    /**
+     * Queues a cell that, when exclusive, runs with no other cell running.
+     */
+    public void submit(Callable<String> cell, boolean timeLimited, boolean exclusive) throws IOException {
+        pending.add((timeLimited ? timedWorkers : workers).submit(() -> {
+            Lock lock = exclusive ? exclusion.writeLock() : exclusion.readLock();
+            lock.lock();
+            try {
+                return cell.call();
+            } finally {
+                lock.unlock();
+            }
+        }));
+        writeCompleted();
+    }
+
+    /**
+     * Blocks until every queued cell has finished, writing rows as they become available.
+     */
+    public void awaitAll() throws IOException {
+        while (!pending.isEmpty()) {
+            sink.accept(result(pending.poll()));
+        }
+    }
+
+    private void writeCompleted() throws IOException {
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            sink.accept(result(pending.poll()));
+        }
+    }
+
+    private static String result(Future<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for an experiment cell", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Experiment cell failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        timedWorkers.shutdownNow();
+    }
+}
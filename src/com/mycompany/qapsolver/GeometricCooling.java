@@ -0,0 +1,17 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Classic geometric cooling: T <- alpha * T.
+ */
+public class GeometricCooling implements CoolingSchedule {
+    private final double alpha;
+
+    public GeometricCooling(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public double next(double temperature, boolean improved) {
+        return temperature * alpha;
+    }
+}
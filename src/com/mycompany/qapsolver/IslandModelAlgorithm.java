@@ -0,0 +1,224 @@
+package com.mycompany.qapsolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Island model: several algorithms, possibly of different kinds, search the same
+ * instance concurrently, one thread per island, and pass good permutations around.
+ *
+ * The wall-clock budget is cut into Config.ISLAND_EPOCHS epochs, and so is an
+ * evaluation budget, split evenly between the islands. In each epoch an island
+ * creates a fresh algorithm from its factory, starts it from the island's current
+ * solution and runs it under the epoch's budget and the run's target fitness:
+ * time-limited algorithms take the epoch's termination directly, local searches
+ * through setTermination() (their descents stop at its wall deadline), and any
+ * other algorithm runs to completion. The search state of the previous epoch (tabu
+ * list, temperature) is dropped on purpose: it belongs to a trajectory the island
+ * may just have left for an immigrant. Between epochs each island checks the run's
+ * termination, under a lock, with the evaluations and best fitness of all islands
+ * so far. Afterwards it sends a copy of its best solution to the next island in a
+ * ring through a ConcurrentLinkedQueue and drains its own queue; the best immigrant
+ * replaces the island's solution if it is better. Otherwise an island running a
+ * plain local search restarts from a random permutation, since it would only
+ * return to the same optimum. Islands never wait for one another, so a slow island
+ * only delays its own migrations. A CPU budget would only measure the idle calling
+ * thread, so a run needs a wall-clock or an evaluation budget.
+ */
+public class IslandModelAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
+    private final List<ExperimentRunner.AlgorithmFactory> islandFactories;
+    private int epochs = Config.ISLAND_EPOCHS;
+    private Termination termination = new Termination(0);
+    // Totals over all islands' finished epochs, for the termination checks.
+    private final AtomicLong islandEvaluations = new AtomicLong();
+    private final AtomicLong islandBestFitness = new AtomicLong();
+    private long migrationsAccepted;
+
+    private static final class Migrant {
+        final Solution solution;
+        final long fitness;
+
+        Migrant(Solution solution, long fitness) {
+            this.solution = solution;
+            this.fitness = fitness;
+        }
+    }
+
+    private static final class Island {
+        final ExperimentRunner.AlgorithmFactory factory;
+        // Seeds the island's algorithms and restarts; only used by the island's thread.
+        final RandomGenerator rand;
+        final Queue<Migrant> inbox = new ConcurrentLinkedQueue<>();
+        final Solution solution;
+        final Solution best;
+        long bestFitness = Long.MAX_VALUE;
+        long evaluations;
+        long steps;
+        long migrationsAccepted;
+        Solution initialSolution;
+        long initialFitness;
+
+        Island(ExperimentRunner.AlgorithmFactory factory, Solution start, long seed) {
+            this.factory = factory;
+            this.rand = RandomSource.create(seed);
+            this.solution = Solution.copyOf(start);
+            this.best = Solution.copyOf(start);
+        }
+    }
+
+    /**
+     * @param islandFactories one factory per island; they may repeat and are called from the island's thread
+     */
+    public IslandModelAlgorithm(Problem problem, List<ExperimentRunner.AlgorithmFactory> islandFactories) {
+        super(problem);
+        this.islandFactories = new ArrayList<>(islandFactories);
+    }
+
+    public void setEpochs(int epochs) {
+        this.epochs = Math.max(1, epochs);
+    }
+
+    @Override
+    public int getThreads() {
+        return Math.max(1, islandFactories.size());
+    }
+
+    public long getMigrationsAccepted() {
+        return migrationsAccepted;
+    }
+
+    @Override
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
+        islandEvaluations.set(0);
+        islandBestFitness.set(Long.MAX_VALUE);
+        if (termination.getWallTime() == Long.MAX_VALUE && termination.getMaxEvaluations() == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("The island model needs a wall-clock or evaluation budget");
+        }
+        long epochNs = Math.max(1, termination.getWallTime() / epochs);
+        long epochEvaluations = termination.getMaxEvaluations() == Long.MAX_VALUE ? Long.MAX_VALUE
+                : Math.max(1, termination.getMaxEvaluations() / epochs / Math.max(1, islandFactories.size()));
+
+        // Island 0 starts from this algorithm's random solution, the others from their own.
+        List<Island> islands = new ArrayList<>(islandFactories.size());
+        for (int i = 0; i < islandFactories.size(); i++) {
+            Solution start = i == 0 ? currentSolution : Solution.random(problem.getSize(), rand);
+            islands.add(new Island(islandFactories.get(i), start, rand.nextLong()));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, islands.size()));
+        try {
+            List<Future<?>> tasks = new ArrayList<>(islands.size());
+            for (int i = 0; i < islands.size(); i++) {
+                Island island = islands.get(i);
+                Island next = islands.get((i + 1) % islands.size());
+                tasks.add(pool.submit(() -> runIsland(island, next, epochNs, epochEvaluations)));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Island best = null;
+        migrationsAccepted = 0;
+        for (Island island : islands) {
+            evaluationsCount += island.evaluations;
+            stepsCount += island.steps;
+            migrationsAccepted += island.migrationsAccepted;
+            if (island.initialSolution != null && (best == null || island.bestFitness < best.bestFitness)) {
+                best = island;
+            }
+        }
+        if (best != null) {
+            Island first = islands.get(0);
+            initialSolution = first.initialSolution;
+            initialFitness = first.initialFitness;
+            currentSolution.copyFrom(best.best);
+            bestSolution.copyFrom(best.best);
+        }
+    }
+
+    private void runIsland(Island island, Island next, long epochNs, long epochEvaluations) {
+        while (!shouldStop()) {
+            Algorithm algorithm = island.factory.create(problem);
+            algorithm.setSeed(island.rand.nextLong());
+            algorithm.setStartSolution(island.solution);
+            Termination epoch = new Termination(Math.min(epochNs, termination.getRemainingWallTime()));
+            epoch.setMaxEvaluations(epochEvaluations);
+            epoch.setTargetFitness(termination.getTargetFitness());
+            epoch.setStopAtTarget(termination.isStopAtTarget());
+            if (algorithm instanceof TimeLimitedAlgorithm) {
+                ((TimeLimitedAlgorithm) algorithm).run(epoch);
+            } else {
+                if (algorithm instanceof LocalSearchAlgorithm) {
+                    ((LocalSearchAlgorithm) algorithm).setTermination(epoch);
+                }
+                algorithm.run();
+            }
+
+            long fitness = algorithm.getBestFitness();
+            island.evaluations += algorithm.getEvaluationsCount();
+            long evaluations = islandEvaluations.addAndGet(algorithm.getEvaluationsCount());
+            island.steps += algorithm.getStepsCount();
+            if (island.initialSolution == null) {
+                island.initialSolution = algorithm.getInitialSolution();
+                island.initialFitness = algorithm.getInitialFitness();
+            }
+            island.solution.copyFrom(algorithm.getBestSolution());
+            if (fitness < island.bestFitness) {
+                island.bestFitness = fitness;
+                island.best.copyFrom(island.solution);
+                islandBestFitness.accumulateAndGet(fitness, Math::min);
+                recordBest(fitness, evaluations);
+            }
+
+            // Emigrate a copy of the island's best, then take in the best immigrant if it helps.
+            next.inbox.offer(new Migrant(Solution.copyOf(island.best), island.bestFitness));
+
+            Migrant bestImmigrant = null;
+            for (Migrant m; (m = island.inbox.poll()) != null; ) {
+                if (bestImmigrant == null || m.fitness < bestImmigrant.fitness) {
+                    bestImmigrant = m;
+                }
+            }
+            if (bestImmigrant != null && bestImmigrant.fitness < fitness) {
+                island.solution.copyFrom(bestImmigrant.solution);
+                island.migrationsAccepted++;
+                if (bestImmigrant.fitness < island.bestFitness) {
+                    island.bestFitness = bestImmigrant.fitness;
+                    island.best.copyFrom(bestImmigrant.solution);
+                }
+            } else if (!(algorithm instanceof TimeLimitedAlgorithm)) {
+                // A plain local search would only stop at the same optimum again; restart it elsewhere.
+                island.solution.shuffle(island.rand);
+            }
+        }
+    }
+
+    // The islands share one termination, so they check it one at a time.
+    private boolean shouldStop() {
+        synchronized (termination) {
+            return termination.shouldStop(islandEvaluations.get(), islandBestFitness.get());
+        }
+    }
+
+    @Override
+    public void run() {
+        run(termination);
+    }
+}
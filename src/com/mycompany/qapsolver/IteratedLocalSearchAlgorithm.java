@@ -0,0 +1,156 @@
+package com.mycompany.qapsolver;
+
+import java.util.Arrays;
+
+/**
+ * Iterated local search over 2-swap moves.
+ *
+ * Starting from a steepest-descent local optimum, each iteration applies k random
+ * swaps to the current optimum, descends again, and accepts the result when it is
+ * no worse than the current one. A rejected candidate is undone by replaying its
+ * swaps in reverse, so the SwapDeltaMatrix stays valid and is not rebuilt.
+ *
+ * The strength k adapts to the acceptance rate over the last adaptWindow
+ * iterations: below lowAcceptance the perturbation is too weak to leave the basin
+ * and k grows, above highAcceptance it is weaker than needed and k shrinks. A new
+ * best solution resets k to its minimum.
+ */
+public class IteratedLocalSearchAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
+    private final int minStrength = 2;
+    private final int adaptWindow = 50;
+    private final double lowAcceptance = 0.05;
+    private final double highAcceptance = 0.3;
+
+    private Termination termination = new Termination(0);
+    private int strength;
+
+    // Swaps applied since the last accepted solution, as (i, j) pairs, for undoing rejected candidates.
+    private int[] trail = new int[64];
+    private int trailSize;
+
+    public IteratedLocalSearchAlgorithm(Problem problem) {
+        super(problem);
+    }
+
+    // Perturbation strength at the end of the last run.
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
+        recordInitial();
+        int n = problem.getSize();
+        bestSolution.copyFrom(currentSolution);
+        if (n < 2) {
+            return;
+        }
+
+        SwapDeltaMatrix deltas = new SwapDeltaMatrix(problem, deltaEvaluator);
+        trailSize = 0;
+        long currentFitness = descend(deltas, initialFitness, n);
+        long bestFitness = currentFitness;
+        bestSolution.copyFrom(currentSolution);
+        recordBest(bestFitness);
+
+        int maxStrength = Math.max(minStrength, n / 2);
+        int k = minStrength;
+        int windowIterations = 0;
+        int windowAccepted = 0;
+
+        while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+            trailSize = 0;
+            long candidateFitness = currentFitness;
+            for (int m = 0; m < k; m++) {
+                int i = rand.nextInt(n);
+                int j = rand.nextInt(n - 1);
+                if (j >= i) {
+                    j++;
+                }
+                candidateFitness += deltas.get(currentSolution, i, j);
+                applySwap(deltas, i, j);
+            }
+            candidateFitness = descend(deltas, candidateFitness, n);
+
+            windowIterations++;
+            if (candidateFitness <= currentFitness) {
+                currentFitness = candidateFitness;
+                windowAccepted++;
+                if (currentFitness < bestFitness) {
+                    bestFitness = currentFitness;
+                    bestSolution.copyFrom(currentSolution);
+                    recordBest(bestFitness);
+                    k = minStrength;
+                }
+            } else {
+                undo(deltas);
+            }
+
+            if (windowIterations == adaptWindow) {
+                double rate = (double) windowAccepted / windowIterations;
+                if (rate < lowAcceptance) {
+                    k = Math.min(maxStrength, k + 1);
+                } else if (rate > highAcceptance) {
+                    k = Math.max(minStrength, k - 1);
+                }
+                windowIterations = 0;
+                windowAccepted = 0;
+            }
+        }
+        strength = k;
+        currentSolution.copyFrom(bestSolution);
+    }
+
+    /**
+     * Steepest 2-swap descent on currentSolution from the given fitness, recording its swaps.
+     */
+    private long descend(SwapDeltaMatrix deltas, long fitness, int n) {
+        while (true) {
+            long bestDelta = 0;
+            int bestI = -1, bestJ = -1;
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    long delta = deltas.get(currentSolution, i, j);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            if (bestI < 0) {
+                return fitness;
+            }
+            applySwap(deltas, bestI, bestJ);
+            fitness += bestDelta;
+            stepsCount++;
+        }
+    }
+
+    private void applySwap(SwapDeltaMatrix deltas, int i, int j) {
+        if (trailSize + 2 > trail.length) {
+            trail = Arrays.copyOf(trail, trail.length * 2);
+        }
+        trail[trailSize++] = i;
+        trail[trailSize++] = j;
+        deltas.applySwap(currentSolution, i, j);
+    }
+
+    /**
+     * Restores the last accepted solution by replaying the recorded swaps in reverse;
+     * each replayed swap keeps the delta table current in O(n^2).
+     */
+    private void undo(SwapDeltaMatrix deltas) {
+        for (int t = trailSize - 2; t >= 0; t -= 2) {
+            deltas.applySwap(currentSolution, trail[t], trail[t + 1]);
+        }
+        trailSize = 0;
+    }
+
+    @Override
+    public void run() {
+        run(termination);
+    }
+}
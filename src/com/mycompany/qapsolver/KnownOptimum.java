@@ -0,0 +1,104 @@
+package com.mycompany.qapsolver;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optimal value and permutation of an instance, as listed in optimal_data.csv
+ * (name,n,solution,"[1-based permutation]").
+ *
+ * Listings do not agree on the permutation's orientation: most give the location
+ * of each facility, some the facility at each location. solutionFor() tries both
+ * against the instance and returns the one whose cost is the listed value.
+ */
+public class KnownOptimum {
+    private final String name;
+    private final long value;
+    // 0-based, as listed.
+    private final int[] permutation;
+
+    public KnownOptimum(String name, long value, int[] permutation) {
+        this.name = name;
+        this.value = value;
+        this.permutation = permutation;
+    }
+
+    /**
+     * Reads optimal_data.csv, keyed by lower-case instance file name (e.g. "chr12a.dat").
+     */
+    public static Map<String, KnownOptimum> load(String optimalCsvPath) throws IOException {
+        Map<String, KnownOptimum> optima = new LinkedHashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(optimalCsvPath))) {
+            String line;
+            br.readLine(); // skip header
+            while ((line = br.readLine()) != null) {
+                // The permutation is quoted and contains commas, so split off the first three fields only.
+                String[] parts = line.split(",", 4);
+                String name = parts[0].trim();
+                if (name.isEmpty() || parts.length < 4) {
+                    continue;
+                }
+                try {
+                    long value = Long.parseLong(parts[2].trim());
+                    String[] positions = parts[3].replaceAll("[\"\\[\\]\\s]", "").split(",");
+                    int[] permutation = new int[positions.length];
+                    for (int i = 0; i < positions.length; i++) {
+                        permutation[i] = Integer.parseInt(positions[i]) - 1;
+                    }
+                    optima.put(name.toLowerCase() + ".dat", new KnownOptimum(name, value, permutation));
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping optimum of " + name + ": " + e.getMessage());
+                }
+            }
+        }
+        return optima;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Fitness a run has to reach to count as having found the optimum, allowing a
+     * relative gap (0 asks for the optimum itself, 0.01 accepts 1% above it).
+     */
+    public long target(double gap) {
+        return value + (long) Math.floor(Math.abs(value) * gap);
+    }
+
+    /**
+     * The listed permutation, or its inverse, whichever costs the listed value on
+     * problem; null if neither does (wrong instance or a bad listing).
+     */
+    public Solution solutionFor(Problem problem) {
+        int n = problem.getSize();
+        if (permutation.length != n) {
+            return null;
+        }
+        int[] inverse = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (permutation[i] < 0 || permutation[i] >= n) {
+                return null;
+            }
+            inverse[permutation[i]] = i;
+        }
+        DeltaEvaluator evaluator = new DeltaEvaluator(problem);
+        for (int[] candidate : new int[][] {permutation, inverse}) {
+            if (evaluator.cost(candidate) == value) {
+                Solution solution = Solution.identity(n);
+                System.arraycopy(candidate, 0, solution.getAssignment(), 0, n);
+                solution.markModified();
+                solution.setFitness(value);
+                return solution;
+            }
+        }
+        return null;
+    }
+}
@@ -1,52 +1,221 @@
 package com.mycompany.qapsolver;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
+
 public abstract class LocalSearchAlgorithm extends Algorithm {
     protected final int maxIterations;
     protected final int randomStarts;
 
+    // Number of starts run concurrently; 1 runs them one after another on the caller's thread.
+    private int parallelism = Config.MULTISTART_PARALLELISM;
+    // When set, the first start begins here instead of at a random permutation.
+    private Solution startSolution;
+    // Optional budget over all starts; its monitor guards it and the two totals below.
+    private Termination termination;
+    private long finishedEvaluations;
+    private long finishedBestFitness;
+    // Wall deadline of the termination (Long.MAX_VALUE without one); set before any start runs.
+    private long deadline = Long.MAX_VALUE;
+
     public LocalSearchAlgorithm(Problem problem, int maxIterations, int randomStarts) {
         super(problem);
         this.maxIterations = maxIterations;
         this.randomStarts = randomStarts;
     }
 
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public int getThreads() {
+        return Math.max(1, Math.min(parallelism, randomStarts));
+    }
+
+    /**
+     * Bounds the whole multi-start by termination (maxIterations still bounds each
+     * descent). It is checked before each start with the evaluations and best fitness
+     * of the starts finished so far; once it fires the remaining starts are skipped,
+     * except the first, so there is always a result. The descents themselves watch
+     * its wall deadline (see pastDeadline()), so a single start ends on time too.
+     * Which starts run then depends on timing, unlike the result of a run without a
+     * termination.
+     */
+    public void setTermination(Termination termination) {
+        this.termination = termination;
+    }
+
+    @Override
+    public void setStartSolution(Solution start) {
+        super.setStartSolution(start);
+        startSolution = Solution.copyOf(start);
+    }
+
+    /**
+     * Working state owned by a single start. Nothing in here is shared, so starts
+     * can run on different threads; counters are folded into the algorithm after
+     * all starts have finished.
+     */
+    protected static final class StartState {
+        final int index;
+        // Taken from the algorithm's pool when the start runs; stays null for a skipped start.
+        Solution solution;
+        final RandomGenerator rand;
+        final DeltaEvaluator deltaEvaluator;
+        long steps = 0;
+
+        Solution initialSolution;
+        long initialFitness;
+        long finalFitness;
+
+        StartState(int index, Problem problem, long seed) {
+            this.index = index;
+            this.rand = RandomSource.create(seed);
+            this.deltaEvaluator = new DeltaEvaluator(problem);
+        }
+    }
+
     /**
      * The run method implements the multi‑start framework.
      * For each random start, it initializes a solution and improves it using localSearch().
      * Finally, it keeps the best overall solution.
+     *
+     * Each start draws its RNG seed from a SplittableRandom rooted at the algorithm's
+     * seed before any work is scheduled, and ties between equally good starts go to
+     * the lowest start index, so a fixed seed gives the same result for any parallelism.
      */
     @Override
     public void run() {
-        int bestOverallFitness = Integer.MAX_VALUE;
-        Solution bestOverallSolution = new Solution(problem.getSize());
-        int n = problem.getSize();
-
+        SplittableRandom root = new SplittableRandom(getSeed());
+        List<StartState> starts = new ArrayList<>(randomStarts);
         for (int start = 0; start < randomStarts; start++) {
-            // Initialize with a random solution.
-            RandomSearchAlgorithm initializer = new RandomSearchAlgorithm(problem, 1);
-            initializer.run();
-            currentSolution.copyFrom(initializer.getBestSolution());
-            int currentFitness = evaluate(currentSolution);
-
-            // Improve the current solution using a specific local search method.
-            currentFitness = localSearch(currentFitness, n);
-
-            // Update overall best solution if this run produced an improvement.
-            if (currentFitness < bestOverallFitness) {
-                bestOverallFitness = currentFitness;
-                bestOverallSolution.copyFrom(currentSolution);
+            starts.add(new StartState(start, problem, root.split().nextLong()));
+        }
+
+        if (termination != null) {
+            finishedEvaluations = 0;
+            finishedBestFitness = Long.MAX_VALUE;
+            termination.start();
+            deadline = termination.getWallDeadline();
+        } else {
+            deadline = Long.MAX_VALUE;
+        }
+
+        StartState best = null;
+        if (parallelism > 1 && randomStarts > 1) {
+            ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, randomStarts));
+            try {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>(randomStarts);
+                for (StartState state : starts) {
+                    tasks.add(pool.submit(() -> runStart(state)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            for (StartState state : starts) {
+                best = keepBetter(best, state);
+            }
+        } else {
+            // One start at a time: a start that loses hands its solution to the next one.
+            for (StartState state : starts) {
+                runStart(state);
+                best = keepBetter(best, state);
+            }
+        }
+
+        // Aggregate counters on the calling thread.
+        for (StartState state : starts) {
+            evaluationsCount += state.deltaEvaluator.getEvaluationsCount();
+            stepsCount += state.steps;
+        }
+        if (best != null) {
+            StartState first = starts.get(0);
+            initialSolution = first.initialSolution;
+            initialFitness = first.initialFitness;
+            currentSolution.copyFrom(best.solution);
+            bestSolution.copyFrom(best.solution);
+            solutionPool.release(best.solution);
+        }
+    }
+
+    /**
+     * The better of the best start so far and a finished later start (ties keep the
+     * earlier one); the other's solution goes back to the pool.
+     */
+    private StartState keepBetter(StartState best, StartState state) {
+        if (state.solution == null) {
+            return best;
+        }
+        if (best == null) {
+            return state;
+        }
+        if (state.finalFitness < best.finalFitness) {
+            solutionPool.release(best.solution);
+            return state;
+        }
+        solutionPool.release(state.solution);
+        return best;
+    }
+
+    private void runStart(StartState state) {
+        if (state.index > 0 && termination != null) {
+            synchronized (termination) {
+                if (termination.shouldStop(finishedEvaluations, finishedBestFitness)) {
+                    return;
+                }
             }
         }
-        bestSolution.copyFrom(bestOverallSolution);
+        // Initialize with a random solution, or the given start for the first start.
+        state.solution = solutionPool.acquire();
+        if (state.index == 0 && startSolution != null) {
+            state.solution.copyFrom(startSolution);
+        } else {
+            state.solution.randomize(state.rand);
+        }
+        // A start solution may bring its fitness along; random starts are evaluated.
+        long currentFitness = state.solution.hasFitness()
+                ? state.solution.getFitness() : state.deltaEvaluator.evaluate(state.solution);
+        if (state.index == 0) {
+            state.initialSolution = Solution.copyOf(state.solution);
+        }
+        state.initialFitness = currentFitness;
+
+        // Improve the current solution using a specific local search method.
+        state.finalFitness = localSearch(state, currentFitness);
+        state.solution.setFitness(state.finalFitness);
+        recordBest(state.finalFitness, state.deltaEvaluator.getEvaluationsCount());
+        if (termination != null) {
+            synchronized (termination) {
+                finishedEvaluations += state.deltaEvaluator.getEvaluationsCount();
+                finishedBestFitness = Math.min(finishedBestFitness, state.finalFitness);
+            }
+        }
+    }
+
+    /**
+     * True once the termination's wall deadline has passed. Descents check it once per
+     * step and stop there, leaving a consistent (if not locally optimal) solution.
+     */
+    protected boolean pastDeadline() {
+        return deadline != Long.MAX_VALUE && TimeUtil.currentTime() >= deadline;
     }
 
     /**
      * Abstract method for performing the local search improvement from a given starting solution.
-     * This method should update currentSolution in-place and return its final fitness.
+     * This method should update start.solution in-place and return its final fitness.
+     * It may run concurrently with other starts, so it must only touch the start's own state.
      *
+     * @param start          the start's working solution, RNG and evaluator.
      * @param currentFitness the fitness of the starting solution.
-     * @param n              the problem size.
      * @return the improved fitness after local search.
      */
-    protected abstract int localSearch(int currentFitness, int n);
+    protected abstract long localSearch(StartState start, long currentFitness);
 }
@@ -0,0 +1,27 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Lundy-Mees cooling: T <- T / (1 + beta * T / T0), which cools fast while the
+ * temperature is high and slows down as it approaches zero. beta is relative to
+ * the run's initial temperature T0, so one value suits instances of any cost
+ * scale: after k chains T = T0 / (1 + k * beta).
+ */
+public class LundyMeesCooling implements CoolingSchedule {
+    private final double beta;
+
+    private double initialTemperature = 1;
+
+    public LundyMeesCooling(double beta) {
+        this.beta = beta;
+    }
+
+    @Override
+    public void reset(double initialTemperature) {
+        this.initialTemperature = initialTemperature;
+    }
+
+    @Override
+    public double next(double temperature, boolean improved) {
+        return temperature / (1 + beta * temperature / initialTemperature);
+    }
+}
@@ -0,0 +1,346 @@
+package com.mycompany.qapsolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Memetic algorithm: a genetic algorithm over permutations whose offspring are
+ * all improved by local search before they compete for a place in the population.
+ *
+ * Each generation pairs random parents and recombines them with a
+ * permutation-preserving crossover (uniform-like UX or cycle crossover), applies
+ * a few random 2-swaps to some offspring, then runs a 2-swap descent scored by
+ * swap deltas on every offspring: each sweep over the neighborhood applies every
+ * improving swap it meets, until a sweep finds none. The descents are independent,
+ * so they run in parallel on a ForkJoinPool, each with its own DeltaEvaluator.
+ * Survivors are the best distinct individuals of parents and offspring; after
+ * Config.MA_RESTART_GENERATIONS generations in which no offspring survives, all
+ * but the best individual are replaced by new random local optima. The termination
+ * is checked once per generation; the descents themselves only watch its wall
+ * deadline.
+ */
+public class MemeticAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
+    public enum Crossover { UNIFORM, CYCLE }
+
+    private final NeighborhoodOperator operator = new TwoSwapOperator();
+    private int populationSize = Config.MA_POPULATION_SIZE;
+    private int offspringCount = Config.MA_OFFSPRING;
+    private double mutationRate = Config.MA_MUTATION_RATE;
+    private int parallelism = Config.MA_PARALLELISM;
+    private Crossover crossover = Crossover.UNIFORM;
+    private Termination termination = new Termination(0);
+
+    private static final class Individual {
+        final Solution solution;
+        long fitness;
+        // Filled in by the local search task.
+        long evaluations;
+        long steps;
+
+        Individual(Solution solution) {
+            this.solution = solution;
+        }
+    }
+
+    public MemeticAlgorithm(Problem problem) {
+        super(problem);
+    }
+
+    public void setCrossover(Crossover crossover) {
+        this.crossover = crossover;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public int getThreads() {
+        return parallelism;
+    }
+
+    @Override
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
+        long deadline = termination.getWallDeadline();
+        recordInitial();
+        int n = problem.getSize();
+        bestSolution.copyFrom(currentSolution);
+        long bestFitness = initialFitness;
+        if (n < 2) {
+            return;
+        }
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            // Initial population: the recorded start and random permutations, all descended.
+            List<Individual> population = new ArrayList<>(populationSize);
+            for (int k = 0; k < populationSize; k++) {
+                Solution s = solutionPool.acquire();
+                if (k == 0) {
+                    s.copyFrom(currentSolution);
+                } else {
+                    s.randomize(rand);
+                }
+                population.add(new Individual(s));
+            }
+            improveAll(population, pool, deadline);
+            population = survivors(population, new ArrayList<>());
+            Individual first = population.get(0);
+            if (first.fitness < bestFitness) {
+                bestFitness = first.fitness;
+                bestSolution.copyFrom(first.solution);
+            }
+            recordBest(bestFitness);
+
+            int stagnantGenerations = 0;
+            while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+                List<Individual> offspring = new ArrayList<>(offspringCount);
+                for (int k = 0; k < offspringCount; k++) {
+                    Individual a = population.get(rand.nextInt(population.size()));
+                    Individual b = population.get(rand.nextInt(population.size()));
+                    Solution child = solutionPool.acquire();
+                    if (crossover == Crossover.CYCLE) {
+                        cycleCrossover(a.solution, b.solution, child, rand);
+                    } else {
+                        uniformCrossover(a.solution, b.solution, child, rand);
+                    }
+                    if (rand.nextDouble() < mutationRate) {
+                        mutate(child, Math.max(2, n / 10));
+                    }
+                    offspring.add(new Individual(child));
+                }
+                improveAll(offspring, pool, deadline);
+
+                List<Individual> next = survivors(population, offspring);
+                boolean offspringSurvived = false;
+                for (Individual individual : next) {
+                    if (offspring.contains(individual)) {
+                        offspringSurvived = true;
+                        break;
+                    }
+                }
+                population = next;
+                stagnantGenerations = offspringSurvived ? 0 : stagnantGenerations + 1;
+
+                if (stagnantGenerations >= Config.MA_RESTART_GENERATIONS) {
+                    for (int k = 1; k < population.size(); k++) {
+                        solutionPool.release(population.get(k).solution);
+                    }
+                    List<Individual> fresh = new ArrayList<>(populationSize - 1);
+                    for (int k = 1; k < populationSize; k++) {
+                        Solution s = solutionPool.acquire();
+                        s.randomize(rand);
+                        fresh.add(new Individual(s));
+                    }
+                    improveAll(fresh, pool, deadline);
+                    fresh.add(population.get(0));
+                    population = survivors(fresh, new ArrayList<>());
+                    stagnantGenerations = 0;
+                }
+
+                Individual best = population.get(0);
+                if (best.fitness < bestFitness) {
+                    bestFitness = best.fitness;
+                    bestSolution.copyFrom(best.solution);
+                    recordBest(bestFitness);
+                }
+            }
+            Individual best = population.get(0);
+            if (best.fitness < bestFitness) {
+                bestSolution.copyFrom(best.solution);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        currentSolution.copyFrom(bestSolution);
+    }
+
+    /**
+     * Runs the local search on every individual, in parallel when a pool is given,
+     * then folds the per-task counters into the algorithm's.
+     */
+    private void improveAll(List<Individual> individuals, ForkJoinPool pool, long deadline) {
+        if (pool == null) {
+            for (Individual individual : individuals) {
+                improve(individual, deadline);
+            }
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(individuals.size());
+            for (Individual individual : individuals) {
+                tasks.add(pool.submit(() -> improve(individual, deadline)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        for (Individual individual : individuals) {
+            evaluationsCount += individual.evaluations;
+            stepsCount += individual.steps;
+        }
+    }
+
+    /**
+     * 2-swap descent scored by deltas, applying improving swaps as the sweep meets them.
+     * Only touches the individual, so it may run on any thread. Stops early, still
+     * correct, at the deadline.
+     */
+    private void improve(Individual individual, long deadline) {
+        DeltaEvaluator evaluator = new DeltaEvaluator(problem);
+        Solution s = individual.solution;
+        int n = problem.getSize();
+        long fitness = evaluator.evaluate(s);
+        boolean improved = true;
+        while (improved && TimeUtil.currentTime() < deadline) {
+            improved = false;
+            for (int move = operator.firstMove(n); move != NeighborhoodOperator.NO_MOVE; move = operator.nextMove(move, n)) {
+                long delta = operator.evaluateMove(s, move, evaluator);
+                if (delta < 0) {
+                    operator.applyMove(s, move, delta);
+                    fitness += delta;
+                    individual.steps++;
+                    improved = true;
+                }
+            }
+        }
+        individual.fitness = fitness;
+        individual.evaluations = evaluator.getEvaluationsCount();
+    }
+
+    /**
+     * The best populationSize distinct individuals of both lists, best first. The
+     * solutions of the others go back to the pool.
+     */
+    private List<Individual> survivors(List<Individual> parents, List<Individual> offspring) {
+        List<Individual> all = new ArrayList<>(parents.size() + offspring.size());
+        all.addAll(parents);
+        all.addAll(offspring);
+        all.sort((x, y) -> Long.compare(x.fitness, y.fitness));
+        List<Individual> next = new ArrayList<>(populationSize);
+        for (Individual candidate : all) {
+            if (next.size() == populationSize) {
+                solutionPool.release(candidate.solution);
+                continue;
+            }
+            boolean duplicate = false;
+            for (Individual kept : next) {
+                if (kept.fitness == candidate.fitness
+                        && Arrays.equals(kept.solution.getAssignment(), candidate.solution.getAssignment())) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) {
+                solutionPool.release(candidate.solution);
+            } else {
+                next.add(candidate);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * UX for permutations: positions where the parents agree are inherited, the others
+     * take parent a's or parent b's value at random when it is still unused, and the
+     * remaining positions get the unused values in random order. The result is
+     * written to child, which must be a different solution from both parents.
+     */
+    static void uniformCrossover(Solution a, Solution b, Solution child, RandomGenerator rand) {
+        int[] pa = a.getAssignment();
+        int[] pb = b.getAssignment();
+        int n = pa.length;
+        int[] c = child.getAssignment();
+        boolean[] used = new boolean[n];
+        Arrays.fill(c, -1);
+        for (int i = 0; i < n; i++) {
+            if (pa[i] == pb[i]) {
+                c[i] = pa[i];
+                used[pa[i]] = true;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (c[i] < 0) {
+                int first = rand.nextBoolean() ? pa[i] : pb[i];
+                int second = first == pa[i] ? pb[i] : pa[i];
+                if (!used[first]) {
+                    c[i] = first;
+                    used[first] = true;
+                } else if (!used[second]) {
+                    c[i] = second;
+                    used[second] = true;
+                }
+            }
+        }
+        fillUnused(c, used, rand);
+        child.markModified();
+    }
+
+    /**
+     * Cycle crossover: the position cycles of the two parents are inherited alternately
+     * from a and b, so every value stays at a position it held in one of the parents.
+     * The result is written to child, as for uniformCrossover.
+     */
+    static void cycleCrossover(Solution a, Solution b, Solution child, RandomGenerator rand) {
+        int[] pa = a.getAssignment();
+        int[] pb = b.getAssignment();
+        int n = pa.length;
+        // positionInA[v]: where parent a puts value v.
+        int[] positionInA = new int[n];
+        for (int i = 0; i < n; i++) {
+            positionInA[pa[i]] = i;
+        }
+        int[] c = child.getAssignment();
+        Arrays.fill(c, -1);
+        boolean fromA = rand.nextBoolean();
+        for (int start = 0; start < n; start++) {
+            if (c[start] >= 0) {
+                continue;
+            }
+            int i = start;
+            do {
+                c[i] = fromA ? pa[i] : pb[i];
+                i = positionInA[pb[i]];
+            } while (i != start);
+            fromA = !fromA;
+        }
+        child.markModified();
+    }
+
+    // Assigns the values not marked used to the empty (-1) positions of c, in random order.
+    private static void fillUnused(int[] c, boolean[] used, RandomGenerator rand) {
+        int n = c.length;
+        int[] free = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (!used[v]) {
+                free[count++] = v;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (c[i] < 0) {
+                int pick = rand.nextInt(count);
+                c[i] = free[pick];
+                free[pick] = free[--count];
+            }
+        }
+    }
+
+    private void mutate(Solution s, int swaps) {
+        int n = s.getAssignment().length;
+        for (int k = 0; k < swaps; k++) {
+            operator.applyMove(s, operator.randomMove(n, rand));
+        }
+    }
+
+    @Override
+    public void run() {
+        run(termination);
+    }
+}
@@ -1,7 +1,5 @@
 package com.mycompany.qapsolver;
 
-import java.util.List;
-
 public class MultiStartSteepestDescentAlgorithm extends LocalSearchAlgorithm {
     private final NeighborhoodOperator operator;
 
@@ -11,45 +9,68 @@ public class MultiStartSteepestDescentAlgorithm extends LocalSearchAlgorithm {
     }
 
     @Override
-    public void run() {
-        int bestOverallFitness = Integer.MAX_VALUE;
-        Solution bestOverallSolution = new Solution(problem.getSize());
+    protected long localSearch(StartState start, long currentFitness) {
         int n = problem.getSize();
-        for (int start = 0; start < randomStarts; start++) {
-            RandomSearchAlgorithm initializer = new RandomSearchAlgorithm(problem, 1);
-            initializer.run();
-            currentSolution.copyFrom(initializer.getBestSolution());
-            recordInitial();
-            int currentFitness = evaluate(currentSolution);
-            for (int iter = 0; iter < maxIterations; iter++) {
-                int bestNeighborFitness = currentFitness;
-                Solution bestNeighbor = null;
-                List<Solution> neighbors = operator.generateNeighbors(currentSolution);
-                for (Solution neighbor : neighbors) {
-                    int newFitness = evaluate(neighbor);
-                    if (newFitness < bestNeighborFitness) {
-                        bestNeighborFitness = newFitness;
-                        bestNeighbor = neighbor;
-                    }
-                }
-                if (bestNeighbor != null && bestNeighborFitness < currentFitness) {
-                    currentSolution.copyFrom(bestNeighbor);
-                    currentFitness = bestNeighborFitness;
-                    stepsCount++;
-                } else {
-                    break;
+        // For 2-swap the whole neighborhood is kept in a maintained delta table;
+        // other operators are walked move by move and scored by delta.
+        if (operator instanceof TwoSwapOperator) {
+            SwapDeltaMatrix deltas = new SwapDeltaMatrix(problem, start.deltaEvaluator);
+            return descendWithDeltaMatrix(start, deltas, currentFitness, n);
+        }
+        return descendWithMoves(start, currentFitness, n);
+    }
+
+    /**
+     * Steepest descent over an arbitrary operator, scoring each move by delta.
+     */
+    private long descendWithMoves(StartState start, long currentFitness, int n) {
+        for (int iter = 0; iter < maxIterations && !pastDeadline(); iter++) {
+            long bestDelta = 0;
+            int bestMove = NeighborhoodOperator.NO_MOVE;
+            for (int move = operator.firstMove(n); move != NeighborhoodOperator.NO_MOVE; move = operator.nextMove(move, n)) {
+                long delta = operator.evaluateMove(start.solution, move, start.deltaEvaluator);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestMove = move;
                 }
             }
-            if (currentFitness < bestOverallFitness) {
-                bestOverallFitness = currentFitness;
-                bestOverallSolution.copyFrom(currentSolution);
+            if (bestMove != NeighborhoodOperator.NO_MOVE) {
+                operator.applyMove(start.solution, bestMove);
+                currentFitness += bestDelta;
+                start.steps++;
+            } else {
+                break;
             }
         }
-        bestSolution.copyFrom(bestOverallSolution);
+        return currentFitness;
     }
 
-    @Override
-    protected int localSearch(int currentFitness, int n) {
+    /**
+     * Steepest 2-swap descent reading deltas from the maintained table,
+     * so each iteration costs O(n^2) instead of O(n^3).
+     */
+    private long descendWithDeltaMatrix(StartState start, SwapDeltaMatrix deltas, long currentFitness, int n) {
+        for (int iter = 0; iter < maxIterations && !pastDeadline(); iter++) {
+            long bestDelta = 0;
+            int bestI = -1, bestJ = -1;
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    long delta = deltas.get(start.solution, i, j);
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestI = i;
+                        bestJ = j;
+                    }
+                }
+            }
+            if (bestI >= 0) {
+                deltas.applySwap(start.solution, bestI, bestJ);
+                currentFitness += bestDelta;
+                start.steps++;
+            } else {
+                break;
+            }
+        }
         return currentFitness;
     }
 }
@@ -1,21 +1,18 @@
 package com.mycompany.qapsolver;
 
 import java.util.Arrays;
-import java.util.Random;
 
 public class NearestNeighborAlgorithm extends Algorithm {
-    private final Random rand;
 
     public NearestNeighborAlgorithm(Problem problem) {
         super(problem);
-        this.rand = new Random();
     }
 
     /**
      * Executes the Nearest Neighbor heuristic for the Quadratic Assignment Problem (QAP).
      *
      * Steps:
-     * 1. Generate a random initial solution using RandomSearchAlgorithm.
+     * 1. Generate a random initial solution.
      * 2. From that initial solution, fix one starting assignment (facility -> location).
      * 3. Iteratively assign remaining facilities using the Nearest Neighbor rule:
      *    - For every unassigned facility and location, calculate the cost increase.
@@ -24,12 +21,8 @@ public class NearestNeighborAlgorithm extends Algorithm {
      */
     @Override
     public void run() {
-        // Generate a random solution using RandomSearchAlgorithm with 1 iteration.
-        RandomSearchAlgorithm initializer = new RandomSearchAlgorithm(problem, 1);
-        initializer.run();
-
-        // Use the random solution as the starting point.
-        currentSolution.copyFrom(initializer.getBestSolution());
+        // Use a fresh random permutation as the starting point.
+        currentSolution.randomize(rand);
         recordInitial(); // Save as the initial solution for tracking.
 
         int n = problem.getSize();
@@ -47,8 +40,10 @@ public class NearestNeighborAlgorithm extends Algorithm {
 
         // Iteratively assign the remaining facilities.
         assignRemainingFacilities(n, sol, assignedFacility, assignedLocation);
+        currentSolution.markModified();
 
-        // Save the final constructed solution as the best found by this heuristic.
+        // Save the final constructed solution, with its cost, as the best found by this heuristic.
+        evaluate(currentSolution);
         bestSolution.copyFrom(currentSolution);
     }
 
@@ -57,8 +52,8 @@ public class NearestNeighborAlgorithm extends Algorithm {
      * At each step, selects the unassigned facility-location pair that causes the smallest increase in cost.
      */
     private void assignRemainingFacilities(int n, int[] sol, boolean[] assignedFacility, boolean[] assignedLocation) {
-        int[][] flow = problem.getFlowMatrix();
-        int[][] distance = problem.getDistanceMatrix();
+        int[] flow = problem.getFlowData();
+        int[] distance = problem.getDistanceData();
 
         // Assign the remaining n-1 facilities.
         for (int k = 1; k < n; k++) {
@@ -76,7 +71,7 @@ public class NearestNeighborAlgorithm extends Algorithm {
      * Considers only unassigned facilities and unassigned locations.
      */
     private int[] findBestAssignment(int n, int[] sol, boolean[] assignedFacility, boolean[] assignedLocation,
-                                     int[][] flow, int[][] distance) {
+                                     int[] flow, int[] distance) {
         double bestCostIncrease = Double.MAX_VALUE;
         int bestF = -1, bestL = -1;
 
@@ -101,15 +96,21 @@ public class NearestNeighborAlgorithm extends Algorithm {
     /**
      * Computes the additional cost incurred by assigning facility f to location l.
      * It sums up the cost contributions with all already assigned facilities.
+     * Both flow directions are read from rows (row f of the flow and its transpose,
+     * row l of the distances and its transpose), so the loop walks contiguous memory.
      */
     private double computeCostIncrease(int f, int l, int[] sol, boolean[] assignedFacility,
-                                       int[][] flow, int[][] distance, int n) {
+                                       int[] flow, int[] distance, int n) {
+        int[] flowT = problem.getFlowDataTransposed();
+        int[] distanceT = problem.getDistanceDataTransposed();
+        int rowF = f * n;
+        int rowL = l * n;
         double costIncrease = 0.0;
         for (int f2 = 0; f2 < n; f2++) {
             if (assignedFacility[f2]) {
                 int loc_f2 = sol[f2];
                 // Add the cost for both directions of flow.
-                costIncrease += flow[f][f2] * distance[l][loc_f2] + flow[f2][f] * distance[loc_f2][l];
+                costIncrease += (double) flow[rowF + f2] * distance[rowL + loc_f2] + (double) flowT[rowF + f2] * distanceT[rowL + loc_f2];
                 evaluationsCount++; // Count each pairwise evaluation as one operation.
             }
         }
@@ -1,17 +1,99 @@
 package com.mycompany.qapsolver;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
+/**
+ * A neighborhood described by encoded moves.
+ *
+ * Moves are plain ints, so a search can walk the whole neighborhood with
+ * firstMove()/nextMove(), score each move by delta, and apply or undo it on a
+ * single mutable Solution without allocating anything per move.
+ */
 public interface NeighborhoodOperator {
+    /**
+     * Returned by firstMove()/nextMove() when the neighborhood is exhausted.
+     */
+    int NO_MOVE = -1;
+
+    /**
+     * Returns the first move in enumeration order for a solution of size n,
+     * or NO_MOVE if the neighborhood is empty.
+     */
+    int firstMove(int n);
+
+    /**
+     * Returns the move following the given one, or NO_MOVE after the last move.
+     */
+    int nextMove(int move, int n);
+
+    /**
+     * Returns one uniformly chosen move for a solution of size n, drawn from rand
+     * so that seeded searches stay reproducible.
+     */
+    int randomMove(int n, RandomGenerator rand);
+
+    /**
+     * Returns the cost change of applying the move to current, computed with
+     * O(n) delta evaluation. The solution is left unchanged.
+     */
+    long evaluateMove(Solution current, int move, DeltaEvaluator evaluator);
+
+    /**
+     * Applies the move to current in place.
+     */
+    void applyMove(Solution current, int move);
+
+    /**
+     * Applies a move whose cost change delta is already known, keeping current's
+     * cached fitness valid if it had one.
+     */
+    default void applyMove(Solution current, int move, long delta) {
+        if (current.hasFitness()) {
+            long fitness = current.getFitness() + delta;
+            applyMove(current, move);
+            current.setFitness(fitness);
+        } else {
+            applyMove(current, move);
+        }
+    }
+
+    /**
+     * Reverts a move previously applied with applyMove().
+     */
+    void undoMove(Solution current, int move);
+
     /**
      * Returns a list of all neighbor solutions from the given solution.
-     * (Used for steepest descent.)
+     * Allocates one Solution per move, so it is not meant for hot loops.
      */
-    List<Solution> generateNeighbors(Solution current);
+    default List<Solution> generateNeighbors(Solution current) {
+        int n = current.getAssignment().length;
+        List<Solution> neighbors = new ArrayList<>();
+        for (int move = firstMove(n); move != NO_MOVE; move = nextMove(move, n)) {
+            Solution neighbor = Solution.copyOf(current);
+            applyMove(neighbor, move);
+            neighbors.add(neighbor);
+        }
+        return neighbors;
+    }
 
     /**
-     * Returns one random neighbor solution from the given solution.
-     * (Used for greedy, first-improvement search.)
+     * Returns one random neighbor solution from the given solution, drawn from the
+     * calling thread's generator.
+     * Allocates a new Solution; hot loops should use randomMove() instead.
      */
-    Solution getRandomNeighbor(Solution current);
+    default Solution getRandomNeighbor(Solution current) {
+        return getRandomNeighbor(current, ThreadLocalRandom.current());
+    }
+
+    // Same, drawn from rand so the neighbor can be reproduced.
+    default Solution getRandomNeighbor(Solution current, RandomGenerator rand) {
+        int n = current.getAssignment().length;
+        Solution neighbor = Solution.copyOf(current);
+        applyMove(neighbor, randomMove(n, rand));
+        return neighbor;
+    }
 }
@@ -0,0 +1,267 @@
+package com.mycompany.qapsolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
+
+/**
+ * Parallel tempering (replica exchange) over 2-swap moves.
+ *
+ * K replicas each run a Metropolis chain at a fixed temperature on their own
+ * thread, with their own Solution, DeltaEvaluator and RNG (seeded from the
+ * algorithm's). The temperatures form
+ * a geometric ladder from the SA starting temperature down to
+ * Config.PT_MIN_TEMPERATURE_RATIO of it. After every exchangeInterval proposals
+ * all replicas meet at a barrier, and the barrier action (run by one thread while
+ * the others wait) offers a swap to alternating pairs of neighboring
+ * temperatures, accepted with probability min(1, exp((1/T_i - 1/T_j)(E_i - E_j))).
+ * Only temperatures move: replicas keep their state and just read a different
+ * ladder slot afterwards, so the barrier is the only synchronization. The
+ * barrier action is also where the termination is checked, with the evaluations
+ * and best fitness of all replicas, so a run stops at an exchange round.
+ *
+ * If a replica fails, it sets stop and breaks the barrier, and run() shuts the
+ * pool down as soon as it sees the failure, interrupting any replica that went on
+ * to wait at the barrier's next round; run() then throws instead of hanging.
+ */
+public class ParallelTemperingAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
+    private final NeighborhoodOperator operator = new TwoSwapOperator();
+    private int replicaCount = Config.PT_REPLICAS;
+    private int exchangeInterval = Config.PT_EXCHANGE_INTERVAL;
+    private Termination termination = new Termination(0);
+
+    // ladder[slot], hottest first; replicaAt[slot] and slotOf[replica] are inverse maps.
+    // Written only by the barrier action, which happens-before every replica leaves the barrier.
+    private double[] ladder;
+    private int[] replicaAt;
+    private int[] slotOf;
+    private RandomGenerator exchangeRand;
+    private long exchangeRounds;
+    private long exchangesAccepted;
+    // Evaluations of all replicas at the last exchange round, for the trace.
+    private long roundEvaluations;
+
+    private volatile boolean stop;
+
+    private static final class Replica {
+        final int index;
+        final Solution solution;
+        final Solution best;
+        final DeltaEvaluator deltaEvaluator;
+        final RandomGenerator rand;
+        long fitness;
+        long bestFitness;
+        long steps;
+
+        Replica(int index, Problem problem, long seed) {
+            this.index = index;
+            this.rand = RandomSource.create(seed);
+            this.solution = Solution.random(problem.getSize(), rand);
+            this.best = Solution.copyOf(solution);
+            this.deltaEvaluator = new DeltaEvaluator(problem);
+        }
+    }
+
+    public ParallelTemperingAlgorithm(Problem problem) {
+        super(problem);
+    }
+
+    public void setReplicaCount(int replicaCount) {
+        this.replicaCount = Math.max(2, replicaCount);
+    }
+
+    public void setExchangeInterval(int exchangeInterval) {
+        this.exchangeInterval = Math.max(1, exchangeInterval);
+    }
+
+    @Override
+    public int getThreads() {
+        return replicaCount;
+    }
+
+    public long getExchangesAccepted() {
+        return exchangesAccepted;
+    }
+
+    public long getExchangeRounds() {
+        return exchangeRounds;
+    }
+
+    @Override
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
+        recordInitial();
+        bestSolution.copyFrom(currentSolution);
+        int n = problem.getSize();
+        if (n < 2) {
+            return;
+        }
+
+        double hottest = -averageDelta(currentSolution, 100, rand) / Math.log(1 - 0.95);
+        hottest = Math.max(hottest, 1e-3);
+        int k = replicaCount;
+        ladder = new double[k];
+        replicaAt = new int[k];
+        slotOf = new int[k];
+        for (int slot = 0; slot < k; slot++) {
+            ladder[slot] = hottest * Math.pow(Config.PT_MIN_TEMPERATURE_RATIO, (double) slot / (k - 1));
+            replicaAt[slot] = slot;
+            slotOf[slot] = slot;
+        }
+
+        // Replica 0 continues from the recorded initial solution, the rest from their own random ones.
+        List<Replica> replicas = new ArrayList<>(k);
+        for (int r = 0; r < k; r++) {
+            Replica replica = new Replica(r, problem, rand.nextLong());
+            if (r == 0) {
+                replica.solution.copyFrom(currentSolution);
+            }
+            replica.fitness = replica.deltaEvaluator.evaluate(replica.solution);
+            replica.bestFitness = replica.fitness;
+            replica.best.copyFrom(replica.solution);
+            replicas.add(replica);
+        }
+
+        exchangeRand = RandomSource.create(rand.nextLong());
+        exchangeRounds = 0;
+        exchangesAccepted = 0;
+        roundEvaluations = replicaEvaluations(replicas);
+        stop = termination.shouldStop(roundEvaluations, replicaBestFitness(replicas));
+        CyclicBarrier barrier = new CyclicBarrier(k, () -> {
+            roundEvaluations = replicaEvaluations(replicas);
+            if (termination.shouldStop(roundEvaluations, replicaBestFitness(replicas))) {
+                stop = true;
+            } else {
+                exchange(replicas);
+            }
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(k);
+        try {
+            // Replicas are collected as they finish, so a failure is seen even while others still wait.
+            CompletionService<Void> done = new ExecutorCompletionService<>(pool);
+            for (Replica replica : replicas) {
+                done.submit(() -> runReplica(replica, barrier), null);
+            }
+            for (int r = 0; r < k; r++) {
+                done.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel tempering replica failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Replica best = null;
+        for (Replica replica : replicas) {
+            evaluationsCount += replica.deltaEvaluator.getEvaluationsCount();
+            stepsCount += replica.steps;
+            if (best == null || replica.bestFitness < best.bestFitness) {
+                best = replica;
+            }
+        }
+        currentSolution.copyFrom(best.best);
+        bestSolution.copyFrom(best.best);
+    }
+
+    private void runReplica(Replica replica, CyclicBarrier barrier) {
+        int n = problem.getSize();
+        int k = ladder.length;
+        try {
+            while (!stop) {
+                long intervalStart = replica.deltaEvaluator.getEvaluationsCount();
+                double indexScale = SimulatedAnnealingAlgorithm.ACCEPT_SCALE / ladder[slotOf[replica.index]];
+                for (int i = 0; i < exchangeInterval; i++) {
+                    int move = operator.randomMove(n, replica.rand);
+                    long delta = operator.evaluateMove(replica.solution, move, replica.deltaEvaluator);
+                    if (delta <= 0 || SimulatedAnnealingAlgorithm.accept(delta * indexScale, replica.rand)) {
+                        operator.applyMove(replica.solution, move, delta);
+                        replica.fitness += delta;
+                        replica.steps++;
+                        if (replica.fitness < replica.bestFitness) {
+                            replica.bestFitness = replica.fitness;
+                            replica.best.copyFrom(replica.solution);
+                            // All replicas run the same interval, so the others are about as far into it.
+                            long intervalEvaluations = replica.deltaEvaluator.getEvaluationsCount() - intervalStart;
+                            recordBest(replica.bestFitness, roundEvaluations + k * intervalEvaluations);
+                        }
+                    }
+                }
+                if (stop) {
+                    break;
+                }
+                barrier.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (BrokenBarrierException e) {
+            // Another replica was interrupted or failed; stop with what we have.
+        } catch (RuntimeException | Error e) {
+            // Release the replicas waiting at the barrier; run() interrupts any that arrive later.
+            stop = true;
+            barrier.reset();
+            throw e;
+        }
+    }
+
+    /**
+     * One exchange round: even rounds pair slots (0,1), (2,3), ..., odd rounds (1,2), (3,4), ...
+     */
+    private void exchange(List<Replica> replicas) {
+        for (int slot = (int) (exchangeRounds & 1); slot + 1 < ladder.length; slot += 2) {
+            int hot = replicaAt[slot];
+            int cold = replicaAt[slot + 1];
+            double x = (1 / ladder[slot] - 1 / ladder[slot + 1])
+                    * (replicas.get(hot).fitness - replicas.get(cold).fitness);
+            if (x >= 0 || exchangeRand.nextDouble() < Math.exp(x)) {
+                replicaAt[slot] = cold;
+                replicaAt[slot + 1] = hot;
+                slotOf[cold] = slot;
+                slotOf[hot] = slot + 1;
+                exchangesAccepted++;
+            }
+        }
+        exchangeRounds++;
+    }
+
+    // Evaluations so far, the algorithm's own plus every replica's; read while the replicas wait.
+    private long replicaEvaluations(List<Replica> replicas) {
+        long total = getEvaluationsCount();
+        for (Replica replica : replicas) {
+            total += replica.deltaEvaluator.getEvaluationsCount();
+        }
+        return total;
+    }
+
+    private static long replicaBestFitness(List<Replica> replicas) {
+        long best = Long.MAX_VALUE;
+        for (Replica replica : replicas) {
+            best = Math.min(best, replica.bestFitness);
+        }
+        return best;
+    }
+
+    private double averageDelta(Solution solution, int samples, RandomGenerator rand) {
+        int n = solution.getAssignment().length;
+        double sum = 0;
+        for (int i = 0; i < samples; i++) {
+            sum += Math.abs(operator.evaluateMove(solution, operator.randomMove(n, rand), deltaEvaluator));
+        }
+        return sum / samples;
+    }
+
+    @Override
+    public void run() {
+        run(termination);
+    }
+}
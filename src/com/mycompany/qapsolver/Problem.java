@@ -1,92 +1,116 @@
 package com.mycompany.qapsolver;
 
-import java.io.*;
-import java.util.*;
+import java.io.IOException;
+import java.util.Arrays;
 
 public class Problem {
     // Number of facilities/locations (QAP size)
     private final int size;
 
-    // Flow matrix: flow[i][j] indicates the flow from facility i to facility j
-    private final int[][] flowMatrix;
+    // Flow matrix in row-major order: flow[i * size + j] is the flow from facility i to facility j
+    private final int[] flow;
 
-    // Distance matrix: distance[i][j] indicates the distance from location i to location j
-    private final int[][] distanceMatrix;
+    // Distance matrix in row-major order: distance[a * size + b] is the distance from location a to location b
+    private final int[] distance;
+
+    // Transposed copies (column-major views) so evaluators can read matrix columns contiguously.
+    // For a symmetric matrix the transposed array is the same array as the original.
+    private final int[] flowTransposed;
+    private final int[] distanceTransposed;
+
+    private final boolean flowSymmetric;
+    private final boolean distanceSymmetric;
+
+    // True when every cost and delta of this instance provably fits in an int.
+    private final boolean intArithmeticSafe;
 
     /**
      * Constructor that loads a QAP instance from a file.
      * The file format is expected to follow:
-     * Line 1: single integer indicating the size n
-     * Next n lines: n x n flow matrix (each line has n integers)
-     * Next n lines: n x n distance matrix (each line has n integers)
+     * the size n, then the n x n flow matrix, then the n x n distance matrix,
+     * all as whitespace-separated integers. Line breaks are not significant, so
+     * files that wrap matrix rows over several lines (e.g. tai256c, esc128) load too.
+     * Parsed instances are cached in binary form when Config.INSTANCE_CACHE_DIR is set.
      *
      * @param filename path to the QAP data file
      * @throws IOException if file is malformed or missing required data
      */
     public Problem(String filename) throws IOException {
-        List<String> lines = new ArrayList<>();
-
-        // Read all non-empty lines from the file
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty()) {
-                    lines.add(line);
-                }
-            }
-        }
-
-        // Validate content
-        if (lines.isEmpty()) {
-            throw new IOException("File is empty: " + filename);
-        }
-
-        // First line: problem size
-        this.size = Integer.parseInt(lines.get(0));
+        this(QaplibReader.read(filename));
+    }
 
-        // Initialize matrices
-        flowMatrix = new int[size][size];
-        distanceMatrix = new int[size][size];
+    private Problem(QaplibReader.Instance instance) {
+        this(instance.size, instance.flow, instance.distance);
+    }
 
-        // Validate file contains enough data for both matrices
-        if (lines.size() < 1 + 2 * size) {
-            throw new IOException("Not enough data for a complete instance (size=" + size + ")");
-        }
+    private Problem(int size, int[] flow, int[] distance) {
+        this.size = size;
+        this.flow = flow;
+        this.distance = distance;
+        this.flowSymmetric = isSymmetric(flow, size);
+        this.distanceSymmetric = isSymmetric(distance, size);
+        this.flowTransposed = flowSymmetric ? flow : transpose(flow, size);
+        this.distanceTransposed = distanceSymmetric ? distance : transpose(distance, size);
+        this.intArithmeticSafe = fitsInt(flow, distance);
+    }
 
-        int index = 1;
+    /**
+     * Alternative constructor useful for testing.
+     * Allows you to directly provide flow and distance matrices in memory.
+     */
+    public Problem(int[][] flowMatrix, int[][] distanceMatrix) {
+        this(flowMatrix.length, flatten(flowMatrix), flatten(distanceMatrix));
+    }
 
-        // Load flow matrix (next `size` lines)
-        for (int i = 0; i < size; i++) {
-            String[] tokens = lines.get(index++).split("\\s+");
-            if (tokens.length != size) {
-                throw new IOException("Invalid number of elements in flow matrix row " + i);
-            }
-            for (int j = 0; j < size; j++) {
-                flowMatrix[i][j] = Integer.parseInt(tokens[j]);
-            }
+    private static int[] flatten(int[][] matrix) {
+        int n = matrix.length;
+        int[] flat = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, flat, i * n, n);
         }
+        return flat;
+    }
 
-        // Load distance matrix (next `size` lines)
-        for (int i = 0; i < size; i++) {
-            String[] tokens = lines.get(index++).split("\\s+");
-            if (tokens.length != size) {
-                throw new IOException("Invalid number of elements in distance matrix row " + i);
-            }
-            for (int j = 0; j < size; j++) {
-                distanceMatrix[i][j] = Integer.parseInt(tokens[j]);
+    private static int[] transpose(int[] matrix, int n) {
+        int[] transposed = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                transposed[j * n + i] = matrix[i * n + j];
             }
         }
+        return transposed;
     }
 
     /**
-     * Alternative constructor useful for testing.
-     * Allows you to directly provide flow and distance matrices in memory.
+     * Bounds the largest intermediate value any evaluator can produce.
+     * With F = sum |f[i][j]| and D = max |d[a][b]|, every cost and every partial
+     * sum of a cost is at most F * D, a swap delta (including the partial sums of
+     * its loop) at most 4 * F * D, and one O(1) delta-matrix update adds at most
+     * 32 * max|f| * D. Computed in double so the check itself cannot overflow.
      */
-    public Problem(int[][] flowMatrix, int[][] distanceMatrix) {
-        this.size = flowMatrix.length;
-        this.flowMatrix = flowMatrix;
-        this.distanceMatrix = distanceMatrix;
+    private static boolean fitsInt(int[] flow, int[] distance) {
+        double sumFlow = 0;
+        double maxFlow = 0;
+        for (int value : flow) {
+            sumFlow += Math.abs((double) value);
+            maxFlow = Math.max(maxFlow, Math.abs((double) value));
+        }
+        double maxDistance = 0;
+        for (int value : distance) {
+            maxDistance = Math.max(maxDistance, Math.abs((double) value));
+        }
+        return 4 * sumFlow * maxDistance + 32 * maxFlow * maxDistance <= Integer.MAX_VALUE;
+    }
+
+    private static boolean isSymmetric(int[] matrix, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (matrix[i * n + j] != matrix[j * n + i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     // Accessor for problem size (number of facilities/locations)
@@ -94,14 +118,83 @@ public class Problem {
         return size;
     }
 
-    // Accessor for the flow matrix
+    // Flow from facility i to facility j
+    public int getFlow(int i, int j) {
+        return flow[i * size + j];
+    }
+
+    // Distance from location a to location b
+    public int getDistance(int a, int b) {
+        return distance[a * size + b];
+    }
+
+    /**
+     * Row-major flow matrix (flow[i * size + j]). Shared, not copied: callers must not modify it.
+     */
+    public int[] getFlowData() {
+        return flow;
+    }
+
+    /**
+     * Row-major distance matrix (distance[a * size + b]). Shared, not copied: callers must not modify it.
+     */
+    public int[] getDistanceData() {
+        return distance;
+    }
+
+    /**
+     * Row-major transpose of the flow matrix, i.e. column i of the flow matrix
+     * starts at i * size. Same array as getFlowData() when the flow is symmetric.
+     */
+    public int[] getFlowDataTransposed() {
+        return flowTransposed;
+    }
+
+    /**
+     * Row-major transpose of the distance matrix. Same array as getDistanceData()
+     * when the distances are symmetric.
+     */
+    public int[] getDistanceDataTransposed() {
+        return distanceTransposed;
+    }
+
+    public boolean isFlowSymmetric() {
+        return flowSymmetric;
+    }
+
+    public boolean isDistanceSymmetric() {
+        return distanceSymmetric;
+    }
+
+    // True when both matrices are symmetric, which lets evaluators count each pair once.
+    public boolean isSymmetric() {
+        return flowSymmetric && distanceSymmetric;
+    }
+
+    /**
+     * True when costs and deltas of this instance cannot overflow 32-bit arithmetic,
+     * so evaluators may use their int fast path. Otherwise they accumulate in long.
+     */
+    public boolean isIntArithmeticSafe() {
+        return intArithmeticSafe;
+    }
+
+    // Copy of the flow matrix as a 2D array (allocates; not for hot paths)
     public int[][] getFlowMatrix() {
-        return flowMatrix;
+        return unflatten(flow);
     }
 
-    // Accessor for the distance matrix
+    // Copy of the distance matrix as a 2D array (allocates; not for hot paths)
     public int[][] getDistanceMatrix() {
-        return distanceMatrix;
+        return unflatten(distance);
+    }
+
+    private int[][] unflatten(int[] flat) {
+        int[][] matrix = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(flat, i * size, matrix[i], 0, size);
+        }
+        return matrix;
     }
 
     /**
@@ -111,11 +204,11 @@ public class Problem {
     public void printInstance() {
         System.out.println("Size: " + size);
         System.out.println("Flow Matrix:");
-        for (int[] row : flowMatrix) {
+        for (int[] row : getFlowMatrix()) {
             System.out.println(Arrays.toString(row));
         }
         System.out.println("Distance Matrix:");
-        for (int[] row : distanceMatrix) {
+        for (int[] row : getDistanceMatrix()) {
             System.out.println(Arrays.toString(row));
         }
     }
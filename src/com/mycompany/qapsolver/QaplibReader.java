@@ -0,0 +1,205 @@
+package com.mycompany.qapsolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads QAPLIB instances into flat row-major int arrays.
+ *
+ * The text parser scans the raw bytes of the file as one stream of integers,
+ * so line breaks inside matrix rows do not matter and no String is created per
+ * token. When Config.INSTANCE_CACHE_DIR is set, each parsed instance is also
+ * written there in a compact binary form and later loads memory-map that file
+ * instead of re-parsing the text. A cache entry records the source file's
+ * length and modification time and is ignored once either changes.
+ */
+final class QaplibReader {
+    private static final int CACHE_MAGIC = 0x51415042; // "QAPB"
+    private static final int CACHE_FORMAT = 1;
+    // magic, format, source length, source mtime, size
+    private static final int CACHE_HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+
+    private QaplibReader() {
+    }
+
+    /**
+     * A parsed instance: the size and both matrices in row-major order.
+     */
+    static final class Instance {
+        final int size;
+        final int[] flow;
+        final int[] distance;
+
+        Instance(int size, int[] flow, int[] distance) {
+            this.size = size;
+            this.flow = flow;
+            this.distance = distance;
+        }
+    }
+
+    static Instance read(String filename) throws IOException {
+        File source = new File(filename);
+        String cacheDir = Config.INSTANCE_CACHE_DIR;
+        if (cacheDir == null) {
+            return parse(source);
+        }
+        Path cacheFile = Paths.get(cacheDir, source.getName() + ".bin");
+        Instance cached = readCache(cacheFile, source);
+        if (cached != null) {
+            return cached;
+        }
+        Instance instance = parse(source);
+        writeCache(cacheFile, source, instance);
+        return instance;
+    }
+
+    /**
+     * Parses the text format: n followed by n*n flow values and n*n distance values.
+     */
+    static Instance parse(File source) throws IOException {
+        byte[] data = Files.readAllBytes(source.toPath());
+        Tokenizer tokens = new Tokenizer(data);
+        if (!tokens.hasNext()) {
+            throw new IOException("File is empty: " + source);
+        }
+        int size = tokens.next();
+        if (size <= 0) {
+            throw new IOException("Invalid instance size " + size + " in " + source);
+        }
+        int[] flow = new int[size * size];
+        int[] distance = new int[size * size];
+        readMatrix(tokens, flow, "flow", size);
+        readMatrix(tokens, distance, "distance", size);
+        return new Instance(size, flow, distance);
+    }
+
+    private static void readMatrix(Tokenizer tokens, int[] matrix, String name, int size) throws IOException {
+        for (int k = 0; k < matrix.length; k++) {
+            if (!tokens.hasNext()) {
+                throw new IOException("Not enough data for a complete instance (size=" + size
+                        + "): " + name + " matrix ends at row " + (k / size) + ", column " + (k % size));
+            }
+            matrix[k] = tokens.next();
+        }
+    }
+
+    /**
+     * Reads signed decimal integers separated by any whitespace straight from the byte buffer.
+     */
+    private static final class Tokenizer {
+        private final byte[] data;
+        private int pos = 0;
+
+        Tokenizer(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasNext() {
+            while (pos < data.length && isWhitespace(data[pos])) {
+                pos++;
+            }
+            return pos < data.length;
+        }
+
+        int next() throws IOException {
+            hasNext();
+            int start = pos;
+            boolean negative = false;
+            if (pos < data.length && (data[pos] == '-' || data[pos] == '+')) {
+                negative = data[pos] == '-';
+                pos++;
+            }
+            long value = 0;
+            int digits = 0;
+            while (pos < data.length && data[pos] >= '0' && data[pos] <= '9') {
+                value = value * 10 + (data[pos] - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new IOException("Integer out of range at byte " + start);
+                }
+                pos++;
+                digits++;
+            }
+            if (digits == 0 || (pos < data.length && !isWhitespace(data[pos]))) {
+                throw new IOException("Invalid number at byte " + start);
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("Integer out of range at byte " + start);
+            }
+            return (int) value;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+        }
+    }
+
+    private static Instance readCache(Path cacheFile, File source) {
+        if (!Files.isRegularFile(cacheFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < CACHE_HEADER_BYTES
+                    || buffer.getInt() != CACHE_MAGIC
+                    || buffer.getInt() != CACHE_FORMAT
+                    || buffer.getLong() != source.length()
+                    || buffer.getLong() != source.lastModified()) {
+                return null;
+            }
+            int size = buffer.getInt();
+            long expected = CACHE_HEADER_BYTES + 2L * 4 * size * size;
+            if (size <= 0 || buffer.capacity() != expected) {
+                return null;
+            }
+            int[] flow = new int[size * size];
+            int[] distance = new int[size * size];
+            IntBuffer ints = buffer.asIntBuffer();
+            ints.get(flow);
+            ints.get(distance);
+            return new Instance(size, flow, distance);
+        } catch (IOException e) {
+            // A broken cache entry is not fatal; fall back to the text file.
+            return null;
+        }
+    }
+
+    private static void writeCache(Path cacheFile, File source, Instance instance) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            // Write to a temporary file and move it into place, so concurrent loaders
+            // never map a half-written entry.
+            Path tmp = Files.createTempFile(cacheFile.getParent(), source.getName(), ".tmp");
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(CACHE_HEADER_BYTES + 2 * 4 * instance.flow.length);
+                buffer.putInt(CACHE_MAGIC)
+                        .putInt(CACHE_FORMAT)
+                        .putLong(source.length())
+                        .putLong(source.lastModified())
+                        .putInt(instance.size);
+                buffer.asIntBuffer().put(instance.flow).put(instance.distance);
+                buffer.rewind();
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // The cache is an optimisation only; loading already succeeded.
+            System.err.println("Could not write instance cache " + cacheFile + ": " + e.getMessage());
+        }
+    }
+}
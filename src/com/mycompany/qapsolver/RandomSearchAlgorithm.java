@@ -1,60 +1,47 @@
 package com.mycompany.qapsolver;
 
-import java.util.Random;
-
 public class RandomSearchAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
     private final int fixedIterations;
-    private final Random rand;
 
     public RandomSearchAlgorithm(Problem problem, int iterations) {
         super(problem);
         this.fixedIterations = iterations;
-        this.rand = new Random();
     }
 
     @Override
     public void run() {
         // Generate one random solution and record it as initial.
-        shuffleSolution(currentSolution);
+        currentSolution.shuffle(rand);
         recordInitial();  // Save the initial random solution.
-        int bestFitness = evaluate(bestSolution);
+        long bestFitness = evaluate(bestSolution);
         for (int i = 0; i < fixedIterations; i++) {
-            shuffleSolution(currentSolution);
-            int currentFitness = evaluate(currentSolution);
+            currentSolution.shuffle(rand);
+            long currentFitness = evaluate(currentSolution);
             if (currentFitness < bestFitness) {
                 bestFitness = currentFitness;
                 bestSolution.copyFrom(currentSolution);
+                recordBest(bestFitness);
                 stepsCount++; // Count accepted improvement.
             }
         }
     }
 
     @Override
-    public void run(long timeLimitNs) {
-        long start = TimeUtil.currentTime();
+    public void run(Termination termination) {
+        termination.start();
         // Generate one random solution and record as initial.
-        shuffleSolution(currentSolution);
+        currentSolution.shuffle(rand);
         recordInitial();
-        int bestFitness = evaluate(bestSolution);
-        while (TimeUtil.currentTime() - start < timeLimitNs) {
-            shuffleSolution(currentSolution);
-            int currentFitness = evaluate(currentSolution);
+        long bestFitness = evaluate(bestSolution);
+        while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+            currentSolution.shuffle(rand);
+            long currentFitness = evaluate(currentSolution);
             if (currentFitness < bestFitness) {
                 bestFitness = currentFitness;
                 bestSolution.copyFrom(currentSolution);
+                recordBest(bestFitness);
                 stepsCount++;
             }
         }
     }
-
-    private void shuffleSolution(Solution sol) {
-        int[] arr = sol.getAssignment();
-        int n = arr.length;
-        for (int i = n - 1; i > 0; i--) {
-            int j = rand.nextInt(i + 1);
-            int temp = arr[i];
-            arr[i] = arr[j];
-            arr[j] = temp;
-        }
-    }
 }
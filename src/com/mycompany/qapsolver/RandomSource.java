@@ -0,0 +1,30 @@
+package com.mycompany.qapsolver;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates the random number generators used by algorithms, solutions and the
+ * experiment harness.
+ *
+ * Each consumer gets its own generator created from a 64-bit seed, so generators
+ * are never shared between threads (java.util.Random and Math.random() make every
+ * call a CAS on a shared seed) and any run can be replayed from its seed. The
+ * generator algorithm is Config.RNG_ALGORITHM, which may be any name
+ * RandomGeneratorFactory knows, e.g. SplittableRandom, Xoshiro256PlusPlus or
+ * L64X128MixRandom.
+ */
+public class RandomSource {
+    private static final RandomGeneratorFactory<RandomGenerator> FACTORY = RandomGeneratorFactory.of(Config.RNG_ALGORITHM);
+
+    // A new generator of the configured kind; equal seeds give equal sequences.
+    public static RandomGenerator create(long seed) {
+        return FACTORY.create(seed);
+    }
+
+    // A fresh seed for consumers that were not given one, drawn without contention.
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -1,27 +1,21 @@
 package com.mycompany.qapsolver;
 
-import java.util.Random;
-
 public class RandomWalkAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
     private final int fixedIterations;
-    private final Random rand;
 
     public RandomWalkAlgorithm(Problem problem, int iterations) {
         super(problem);
         this.fixedIterations = iterations;
-        this.rand = new Random();
     }
 
     @Override
     public void run() {
-        RandomSearchAlgorithm initializer = new RandomSearchAlgorithm(problem, 1);
-        initializer.run();
-        currentSolution.copyFrom(initializer.getBestSolution());
-        // Record initial solution.
+        // Start from a fresh random permutation and record it as the initial solution.
+        currentSolution.randomize(rand);
         recordInitial();
         bestSolution.copyFrom(currentSolution);
-        int currentFitness = evaluate(currentSolution);
-        int bestFitness = currentFitness;
+        long currentFitness = initialFitness;
+        long bestFitness = currentFitness;
         for (int i = 0; i < fixedIterations; i++) {
             int a = rand.nextInt(problem.getSize());
             int b = rand.nextInt(problem.getSize());
@@ -29,47 +23,47 @@ public class RandomWalkAlgorithm extends Algorithm implements TimeLimitedAlgorit
                 b = rand.nextInt(problem.getSize());
             }
             currentSolution.swap(a, b);
-            int newFitness = evaluate(currentSolution);
+            long newFitness = evaluate(currentSolution);
             if (newFitness < currentFitness) {
                 currentFitness = newFitness;
                 if (newFitness < bestFitness) {
                     bestFitness = newFitness;
                     bestSolution.copyFrom(currentSolution);
+                    recordBest(bestFitness);
                 }
                 stepsCount++;
             } else {
-                currentSolution.swap(a, b);
+                currentSolution.swap(a, b, currentFitness - newFitness);
             }
         }
     }
 
     @Override
-    public void run(long timeLimitNs) {
-        RandomSearchAlgorithm initializer = new RandomSearchAlgorithm(problem, 1);
-        initializer.run();
-        currentSolution.copyFrom(initializer.getBestSolution());
+    public void run(Termination termination) {
+        termination.start();
+        currentSolution.randomize(rand);
         recordInitial();
         bestSolution.copyFrom(currentSolution);
-        int currentFitness = evaluate(currentSolution);
-        int bestFitness = currentFitness;
-        long start = TimeUtil.currentTime();
-        while (TimeUtil.currentTime() - start < timeLimitNs) {
+        long currentFitness = initialFitness;
+        long bestFitness = currentFitness;
+        while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
             int a = rand.nextInt(problem.getSize());
             int b = rand.nextInt(problem.getSize());
             while (b == a) {
                 b = rand.nextInt(problem.getSize());
             }
             currentSolution.swap(a, b);
-            int newFitness = evaluate(currentSolution);
+            long newFitness = evaluate(currentSolution);
             if (newFitness < currentFitness) {
                 currentFitness = newFitness;
                 if (newFitness < bestFitness) {
                     bestFitness = newFitness;
                     bestSolution.copyFrom(currentSolution);
+                    recordBest(bestFitness);
                 }
                 stepsCount++;
             } else {
-                currentSolution.swap(a, b);
+                currentSolution.swap(a, b, currentFitness - newFitness);
             }
         }
     }
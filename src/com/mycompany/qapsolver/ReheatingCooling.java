@@ -0,0 +1,38 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Wraps another schedule and reheats when the search stalls: after patience
+ * consecutive chains without improving the best solution the temperature is
+ * raised to reheatFraction of the run's initial temperature.
+ */
+public class ReheatingCooling implements CoolingSchedule {
+    private final CoolingSchedule base;
+    private final int patience;
+    private final double reheatFraction;
+
+    private double initialTemperature;
+    private int stalledChains;
+
+    public ReheatingCooling(CoolingSchedule base, int patience, double reheatFraction) {
+        this.base = base;
+        this.patience = patience;
+        this.reheatFraction = reheatFraction;
+    }
+
+    @Override
+    public void reset(double initialTemperature) {
+        this.initialTemperature = initialTemperature;
+        this.stalledChains = 0;
+        base.reset(initialTemperature);
+    }
+
+    @Override
+    public double next(double temperature, boolean improved) {
+        stalledChains = improved ? 0 : stalledChains + 1;
+        if (stalledChains >= patience) {
+            stalledChains = 0;
+            return Math.max(temperature, reheatFraction * initialTemperature);
+        }
+        return base.next(temperature, improved);
+    }
+}
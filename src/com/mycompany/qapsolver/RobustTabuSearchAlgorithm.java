@@ -0,0 +1,117 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Taillard's robust tabu search (RoTS) for the QAP.
+ *
+ * Every iteration scans the whole 2-swap neighborhood through a SwapDeltaMatrix,
+ * so one step costs O(n^2) with no allocation. Tabu status is kept in an n x n
+ * matrix indexed by (facility, location): the entry holds the iteration until
+ * which putting that facility back on that location is forbidden. A swap of
+ * facilities r and s is tabu when both of the assignments it creates are.
+ * Tenures are drawn at random from [tenureMin * n, tenureMax * n] for every
+ * stamp, and a tabu move is still taken when it beats the best fitness found so
+ * far (aspiration). A move creating an assignment that has not been used for
+ * aspirationFactor * n^2 iterations aspires as well, which keeps the search from
+ * ignoring parts of the space for too long. As in Taillard's code, aspiring moves
+ * take precedence over the others, and the best of them is taken.
+ */
+public class RobustTabuSearchAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
+    private Termination termination = new Termination(0);
+    private final double tenureMin = 0.9;
+    private final double tenureMax = 1.1;
+    private final int aspirationFactor = 5;
+
+    public RobustTabuSearchAlgorithm(Problem problem) {
+        super(problem);
+    }
+
+    @Override
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
+        recordInitial();
+
+        int n = problem.getSize();
+
+        long currentFitness = initialFitness;
+        long bestFitness = currentFitness;
+        bestSolution.copyFrom(currentSolution);
+        if (n < 2) {
+            return;
+        }
+
+        int minTenure = Math.max(1, (int) (tenureMin * n));
+        int tenureSpan = Math.max(0, (int) (tenureMax * n) - minTenure);
+        long aspiration = (long) aspirationFactor * n * n;
+
+        // tabu[facility * n + location]: the iteration until which the facility may not
+        // return to the location. Entries start at 0, so the long-term aspiration only
+        // fires once an assignment has really been unused for that long.
+        long[] tabu = new long[n * n];
+        int[] p = currentSolution.getAssignment();
+        SwapDeltaMatrix deltas = new SwapDeltaMatrix(problem, deltaEvaluator);
+
+        long iteration = 0;
+        while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+            iteration++;
+            int bestI = -1;
+            int bestJ = -1;
+            long bestDelta = Long.MAX_VALUE;
+            boolean anyAspired = false;
+            // Fallback when every move is tabu and none aspires.
+            int fallbackI = -1;
+            int fallbackJ = -1;
+            long fallbackDelta = Long.MAX_VALUE;
+
+            for (int i = 0; i < n - 1; i++) {
+                int rowI = i * n;
+                for (int j = i + 1; j < n; j++) {
+                    long delta = deltas.get(currentSolution, i, j);
+                    long expiryI = tabu[rowI + p[j]];
+                    long expiryJ = tabu[j * n + p[i]];
+                    boolean improvesBest = currentFitness + delta < bestFitness;
+                    boolean authorized = expiryI < iteration || expiryJ < iteration || improvesBest;
+                    boolean aspired = expiryI < iteration - aspiration || expiryJ < iteration - aspiration
+                            || improvesBest;
+
+                    // The first aspiring move replaces any merely authorized one; after that
+                    // only aspiring moves compete.
+                    if ((aspired && (!anyAspired || delta < bestDelta))
+                            || (!anyAspired && authorized && delta < bestDelta)) {
+                        bestI = i;
+                        bestJ = j;
+                        bestDelta = delta;
+                        anyAspired |= aspired;
+                    } else if (!authorized && delta < fallbackDelta) {
+                        fallbackI = i;
+                        fallbackJ = j;
+                        fallbackDelta = delta;
+                    }
+                }
+            }
+            if (bestI < 0) {
+                bestI = fallbackI;
+                bestJ = fallbackJ;
+                bestDelta = fallbackDelta;
+            }
+
+            // Forbid moving the two facilities back to the locations they leave.
+            tabu[bestI * n + p[bestI]] = iteration + minTenure + rand.nextInt(tenureSpan + 1);
+            tabu[bestJ * n + p[bestJ]] = iteration + minTenure + rand.nextInt(tenureSpan + 1);
+            deltas.applySwap(currentSolution, bestI, bestJ);
+            currentFitness += bestDelta;
+            stepsCount++;
+
+            if (currentFitness < bestFitness) {
+                bestFitness = currentFitness;
+                bestSolution.copyFrom(currentSolution);
+                recordBest(bestFitness);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        run(termination);
+    }
+}
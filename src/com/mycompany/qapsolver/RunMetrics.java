@@ -0,0 +1,112 @@
+package com.mycompany.qapsolver;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Run-level counters taken around one algorithm run: wall time, evaluations per
+ * second, accepted moves per evaluation, and GC and allocation activity.
+ *
+ * GC counts come from the GarbageCollectorMXBeans and cover the whole JVM, so
+ * they include concurrently running cells. Allocated bytes come from the
+ * HotSpot ThreadMXBean extension and cover only the thread calling begin() and
+ * end(), not worker threads an algorithm starts; they are -1 when the JVM does
+ * not support them.
+ */
+public class RunMetrics {
+    private static final List<GarbageCollectorMXBean> GC_BEANS = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = allocationBean();
+
+    private long startNs;
+    private long gcCountAtStart;
+    private long gcTimeAtStart;
+    private long allocatedAtStart;
+
+    private long elapsedNs;
+    private long evaluations;
+    private long steps;
+    private long gcCount;
+    private long gcTimeMs;
+    private long allocatedBytes = -1;
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Snapshots the counters; call on the thread that runs the algorithm, right before it runs.
+     */
+    public void begin() {
+        gcCountAtStart = totalGcCount();
+        gcTimeAtStart = totalGcTime();
+        allocatedAtStart = allocatedByThisThread();
+        startNs = TimeUtil.currentTime();
+    }
+
+    /**
+     * Takes the differences since begin(), on the same thread, and reads the algorithm's counters.
+     */
+    public void end(Algorithm algorithm) {
+        elapsedNs = TimeUtil.currentTime() - startNs;
+        evaluations = algorithm.getEvaluationsCount();
+        steps = algorithm.getStepsCount();
+        gcCount = totalGcCount() - gcCountAtStart;
+        gcTimeMs = totalGcTime() - gcTimeAtStart;
+        long allocated = allocatedByThisThread();
+        allocatedBytes = allocated < 0 || allocatedAtStart < 0 ? -1 : allocated - allocatedAtStart;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : GC_BEANS) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : GC_BEANS) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long allocatedByThisThread() {
+        return THREAD_BEAN == null ? -1 : THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public long getElapsedNs() {
+        return elapsedNs;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return elapsedNs > 0 ? evaluations * 1e9 / elapsedNs : 0;
+    }
+
+    // Accepted moves (steps) per evaluated solution or move.
+    public double getAcceptanceRate() {
+        return evaluations > 0 ? (double) steps / evaluations : 0;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMs() {
+        return gcTimeMs;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -1,75 +1,122 @@
 package com.mycompany.qapsolver;
 
-import java.util.Random;
-
+import java.util.random.RandomGenerator;
+
+/**
+ * Simulated annealing over 2-swap moves.
+ *
+ * Proposals are scored with the O(n) swap delta and applied in place, so a
+ * proposal allocates nothing. Uphill moves are accepted with probability
+ * exp(-delta / T), read from a precomputed table instead of calling Math.exp,
+ * and the temperature follows a pluggable CoolingSchedule (geometric by default).
+ */
 public class SimulatedAnnealingAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
     private final NeighborhoodOperator operator = new TwoSwapOperator();
     private final double alpha = 0.9;
     private final int P = 10;
 
-    private long timeLimitNs;
+    // exp(-x) sampled at x = k / ACCEPT_SCALE for x < ACCEPT_LIMIT; beyond that a move is never accepted.
+    static final int ACCEPT_SCALE = 1024;
+    private static final double ACCEPT_LIMIT = 20.0;
+    private static final double[] ACCEPT_TABLE = new double[(int) (ACCEPT_LIMIT * ACCEPT_SCALE)];
+
+    static {
+        for (int k = 0; k < ACCEPT_TABLE.length; k++) {
+            ACCEPT_TABLE[k] = Math.exp(-(double) k / ACCEPT_SCALE);
+        }
+    }
+
+    private CoolingSchedule coolingSchedule;
+    private Termination termination = new Termination(0);
 
     public SimulatedAnnealingAlgorithm(Problem problem) {
         super(problem);
+        this.coolingSchedule = new GeometricCooling(alpha);
+    }
+
+    public SimulatedAnnealingAlgorithm(Problem problem, CoolingSchedule coolingSchedule) {
+        super(problem);
+        this.coolingSchedule = coolingSchedule;
+    }
+
+    public void setCoolingSchedule(CoolingSchedule coolingSchedule) {
+        this.coolingSchedule = coolingSchedule;
     }
 
     @Override
-    public void run(long timeLimitNs) {
-        this.timeLimitNs = timeLimitNs;
+    public void run(Termination termination) {
+        this.termination = termination;
+        termination.start();
 
-        Random rand = new Random();
         recordInitial();
         int n = problem.getSize();
         double acceptanceRate = 0.95;
 
         // Estimate avg cost delta from 100 random neighbors
-        double avgDelta = estimateAverageDelta(currentSolution, 100);
+        double avgDelta = estimateAverageDelta(currentSolution, 100, rand);
         double temperature = -avgDelta / Math.log(1 - acceptanceRate);
+        coolingSchedule.reset(temperature);
 
         int L = n * 5; // Markov chain length per temperature
         int noImprovement = 0;
 
-        int currentFitness = evaluate(currentSolution);
-        int bestFitness = currentFitness;
+        long currentFitness = initialFitness;
+        long bestFitness = currentFitness;
         bestSolution.copyFrom(currentSolution);
 
-        long startTime = TimeUtil.currentTime();
+        boolean timeUp = termination.shouldStop(getEvaluationsCount(), bestFitness);
 
-        while ((TimeUtil.currentTime() - startTime) < timeLimitNs &&
+        while (!timeUp &&
                 noImprovement < P * L &&
                 temperature > 1e-3) {
             boolean improved = false;
+            // Scales a delta straight to a table index for this chain's temperature.
+            double indexScale = ACCEPT_SCALE / temperature;
             for (int i = 0; i < L; i++) {
-                Solution neighbor = operator.getRandomNeighbor(currentSolution);
-                int neighborFitness = evaluate(neighbor);
-                int delta = neighborFitness - currentFitness;
+                if (termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+                    timeUp = true;
+                    break;
+                }
+                int move = operator.randomMove(n, rand);
+                long delta = operator.evaluateMove(currentSolution, move, deltaEvaluator);
 
-                if (delta < 0 || rand.nextDouble() < Math.exp(-delta / temperature)) {
-                    currentSolution.copyFrom(neighbor);
-                    currentFitness = neighborFitness;
+                if (delta <= 0 || accept(delta * indexScale, rand)) {
+                    operator.applyMove(currentSolution, move, delta);
+                    currentFitness += delta;
                     stepsCount++;
                     if (currentFitness < bestFitness) {
                         bestFitness = currentFitness;
                         bestSolution.copyFrom(currentSolution);
+                        recordBest(bestFitness);
                         improved = true;
                     }
                 }
-
-                if ((TimeUtil.currentTime() - startTime) >= timeLimitNs) break;
             }
 
             if (!improved) noImprovement++;
             else noImprovement = 0;
 
-            temperature *= alpha;
+            temperature = coolingSchedule.next(temperature, improved);
+        }
+    }
+
+    /**
+     * Metropolis test for an uphill move, given delta / T already scaled to a table index
+     * (i.e. multiplied by ACCEPT_SCALE).
+     */
+    static boolean accept(double scaledDelta, RandomGenerator rand) {
+        if (scaledDelta >= ACCEPT_TABLE.length) {
+            return false;
         }
+        return rand.nextDouble() < ACCEPT_TABLE[(int) scaledDelta];
     }
 
-    private double estimateAverageDelta(Solution solution, int samples) {
+    private double estimateAverageDelta(Solution solution, int samples, RandomGenerator rand) {
         double sum = 0;
+        int n = solution.getAssignment().length;
         for (int i = 0; i < samples; i++) {
-            Solution neighbor = operator.getRandomNeighbor(solution);
-            int delta = Math.abs(evaluate(neighbor) - evaluate(solution));
+            int move = operator.randomMove(n, rand);
+            long delta = Math.abs(operator.evaluateMove(solution, move, deltaEvaluator));
             sum += delta;
         }
         return sum / samples;
@@ -77,6 +124,6 @@ public class SimulatedAnnealingAlgorithm extends Algorithm implements TimeLimite
 
     @Override
     public void run() {
-        run(this.timeLimitNs);
+        run(termination);
     }
 }
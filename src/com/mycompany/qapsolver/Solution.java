@@ -1,27 +1,70 @@
 package com.mycompany.qapsolver;
 
 import java.util.Arrays;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class Solution {
     private final int[] assignment;
 
-    public Solution(int size) {
-        this.assignment = new int[size];
-        // Initialize with the identity permutation.
+    // Incremented on every mutation so caches derived from the assignment can detect stale state.
+    private long version = 0;
+
+    // Cost of the assignment as of fitnessVersion; only valid while that equals version.
+    private long fitness;
+    private long fitnessVersion = -1;
+
+    private Solution(int[] assignment) {
+        this.assignment = assignment;
+    }
+
+    // The identity permutation (facility i at location i); draws no random numbers.
+    public static Solution identity(int size) {
+        int[] assignment = new int[size];
         for (int i = 0; i < size; i++) {
             assignment[i] = i;
         }
-        // Shuffle the array to obtain a random permutation.
-        Random rand = new Random();
-        for (int i = size - 1; i > 0; i--) {
+        return new Solution(assignment);
+    }
+
+    // A uniformly random permutation drawn from rand, so it can be reproduced from rand's seed.
+    public static Solution random(int size, RandomGenerator rand) {
+        Solution solution = identity(size);
+        solution.shuffle(rand);
+        return solution;
+    }
+
+    // An independent copy of other.
+    public static Solution copyOf(Solution other) {
+        Solution copy = new Solution(other.assignment.clone());
+        if (other.hasFitness()) {
+            copy.setFitness(other.fitness);
+        }
+        return copy;
+    }
+
+    // Overwrites the assignment with the permutation random(size, rand) would return.
+    public void randomize(RandomGenerator rand) {
+        for (int i = 0; i < assignment.length; i++) {
+            assignment[i] = i;
+        }
+        shuffle(rand);
+    }
+
+    // Fisher-Yates shuffle of the current assignment; uniformly random whatever it was before.
+    public void shuffle(RandomGenerator rand) {
+        for (int i = assignment.length - 1; i > 0; i--) {
             int j = rand.nextInt(i + 1);
             int temp = assignment[i];
             assignment[i] = assignment[j];
             assignment[j] = temp;
         }
+        version++;
     }
 
+    /**
+     * Returns the backing array. Callers that write to it directly must call
+     * markModified() afterwards so cached state is invalidated.
+     */
     public int[] getAssignment() {
         return assignment;
     }
@@ -31,11 +74,64 @@ public class Solution {
         int temp = assignment[i];
         assignment[i] = assignment[j];
         assignment[j] = temp;
+        version++;
     }
 
-    // Copy the contents from another solution (assumes same size).
+    /**
+     * Swaps two elements in-place, where delta is the cost change of the swap, so a
+     * known fitness stays known instead of being invalidated.
+     */
+    public void swap(int i, int j, long delta) {
+        boolean known = hasFitness();
+        swap(i, j);
+        if (known) {
+            setFitness(fitness + delta);
+        }
+    }
+
+    // Copy the contents from another solution (assumes same size), with its fitness if known.
     public void copyFrom(Solution other) {
         System.arraycopy(other.assignment, 0, this.assignment, 0, assignment.length);
+        version++;
+        if (other.hasFitness()) {
+            setFitness(other.fitness);
+        }
+    }
+
+    // Signals that the assignment was changed through getAssignment().
+    public void markModified() {
+        version++;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Caches the cost of the current assignment. Any later mutation other than the
+     * delta-carrying swap invalidates it. The cache does not know which problem the
+     * cost belongs to, so a solution must only be scored against one instance.
+     */
+    public void setFitness(long fitness) {
+        this.fitness = fitness;
+        this.fitnessVersion = version;
+    }
+
+    // True when the cached fitness belongs to the current assignment.
+    public boolean hasFitness() {
+        return fitnessVersion == version;
+    }
+
+    /**
+     * The cached cost of the current assignment.
+     *
+     * @throws IllegalStateException if the assignment changed since the fitness was set
+     */
+    public long getFitness() {
+        if (!hasFitness()) {
+            throw new IllegalStateException("Fitness of this solution is not known");
+        }
+        return fitness;
     }
 
     public double similarityTo(Solution other) {
@@ -0,0 +1,45 @@
+package com.mycompany.qapsolver;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Recycles Solution buffers of one size, so searches that keep creating and
+ * dropping solutions (restarts, offspring, per-start working copies) stop
+ * allocating once the pool has warmed up.
+ *
+ * A released solution must not be used by its previous owner any more. The pool
+ * is backed by a lock-free queue, so starts running on different threads may
+ * share one; it keeps everything released to it, which is bounded by what its
+ * owner allocated in the first place.
+ */
+public class SolutionPool {
+    private final int size;
+    private final Queue<Solution> free = new ConcurrentLinkedQueue<>();
+
+    public SolutionPool(int size) {
+        this.size = size;
+    }
+
+    /**
+     * A solution whose assignment is some permutation of the right size; callers
+     * overwrite it (copyFrom, randomize, ...) before use.
+     */
+    public Solution acquire() {
+        Solution solution = free.poll();
+        return solution != null ? solution : Solution.identity(size);
+    }
+
+    // A pooled solution holding a copy of other.
+    public Solution acquireCopy(Solution other) {
+        Solution solution = acquire();
+        solution.copyFrom(other);
+        return solution;
+    }
+
+    public void release(Solution solution) {
+        if (solution.getAssignment().length == size) {
+            free.offer(solution);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Maintained table of the cost change of every 2-swap move of one solution
+ * (Taillard's robust tabu search trick).
+ *
+ * The table is built in O(n^3) when a solution is first attached. After a swap
+ * of positions r and s is applied through applySwap(), the deltas of moves
+ * that do not touch r or s are updated in O(1) each and the remaining O(n)
+ * moves are recomputed in O(n), so a full neighborhood scan costs O(n^2).
+ *
+ * The table remembers the solution's version; if the solution is mutated in
+ * any other way (copyFrom, swap, markModified) the table is rebuilt lazily on
+ * the next query.
+ */
+public class SwapDeltaMatrix {
+    private final int[] flow;
+    private final int[] distance;
+    private final int[] flowTransposed;
+    private final int[] distanceTransposed;
+    private final int size;
+    private final boolean intSafe;
+    private final DeltaEvaluator evaluator;
+
+    // delta[i * size + j] for i < j; the lower triangle is unused.
+    private final long[] delta;
+
+    private Solution solution;
+    private long version;
+
+    public SwapDeltaMatrix(Problem problem, DeltaEvaluator evaluator) {
+        this.flow = problem.getFlowData();
+        this.distance = problem.getDistanceData();
+        this.flowTransposed = problem.getFlowDataTransposed();
+        this.distanceTransposed = problem.getDistanceDataTransposed();
+        this.size = problem.getSize();
+        this.intSafe = problem.isIntArithmeticSafe();
+        this.evaluator = evaluator;
+        this.delta = new long[size * size];
+    }
+
+    /**
+     * Returns the cost change of swapping positions i and j of sol,
+     * rebuilding the table first if sol is not the solution it describes.
+     */
+    public long get(Solution sol, int i, int j) {
+        refresh(sol);
+        return i < j ? delta[i * size + j] : delta[j * size + i];
+    }
+
+    /**
+     * Swaps positions r and s of sol and brings the table up to date. A fitness
+     * cached on sol is shifted by the swap's delta rather than invalidated.
+     */
+    public void applySwap(Solution sol, int r, int s) {
+        refresh(sol);
+        if (r > s) {
+            int t = r;
+            r = s;
+            s = t;
+        }
+        sol.swap(r, s, delta[r * size + s]);
+        int n = size;
+        int[] p = sol.getAssignment();
+        int fr = r * n;
+        int fs = s * n;
+        int dr = p[r] * n;
+        int ds = p[s] * n;
+
+        for (int i = 0; i < n - 1; i++) {
+            int pi = p[i];
+            int row = i * n;
+            boolean touchesI = i == r || i == s;
+            for (int j = i + 1; j < n; j++) {
+                if (touchesI || j == r || j == s) {
+                    delta[row + j] = evaluator.swapDelta(p, i, j);
+                } else {
+                    int pj = p[j];
+                    if (intSafe) {
+                        delta[row + j] += (flow[fr + i] - flow[fr + j] + flow[fs + j] - flow[fs + i])
+                                * (distance[ds + pi] - distance[ds + pj] + distance[dr + pj] - distance[dr + pi])
+                                + (flowTransposed[fr + i] - flowTransposed[fr + j] + flowTransposed[fs + j] - flowTransposed[fs + i])
+                                * (distanceTransposed[ds + pi] - distanceTransposed[ds + pj] + distanceTransposed[dr + pj] - distanceTransposed[dr + pi]);
+                    } else {
+                        delta[row + j] += ((long) flow[fr + i] - flow[fr + j] + flow[fs + j] - flow[fs + i])
+                                * ((long) distance[ds + pi] - distance[ds + pj] + distance[dr + pj] - distance[dr + pi])
+                                + ((long) flowTransposed[fr + i] - flowTransposed[fr + j] + flowTransposed[fs + j] - flowTransposed[fs + i])
+                                * ((long) distanceTransposed[ds + pi] - distanceTransposed[ds + pj] + distanceTransposed[dr + pj] - distanceTransposed[dr + pi]);
+                    }
+                }
+            }
+        }
+        // Every O(1) update re-scores one neighbor, so count it like a delta evaluation.
+        long touched = 2L * n - 3;
+        evaluator.addEvaluations((long) n * (n - 1) / 2 - touched);
+        version = sol.getVersion();
+    }
+
+    private void refresh(Solution sol) {
+        if (sol == solution && sol.getVersion() == version) {
+            return;
+        }
+        int[] p = sol.getAssignment();
+        for (int i = 0; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                delta[i * size + j] = evaluator.swapDelta(p, i, j);
+            }
+        }
+        solution = sol;
+        version = sol.getVersion();
+    }
+}
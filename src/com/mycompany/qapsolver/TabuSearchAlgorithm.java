@@ -3,8 +3,8 @@ package com.mycompany.qapsolver;
 import java.util.*;
 
 public class TabuSearchAlgorithm extends Algorithm implements TimeLimitedAlgorithm {
-    private final NeighborhoodOperator operator = new TwoSwapOperator();
-    private long timeLimitNs;
+    private final TwoSwapOperator operator = new TwoSwapOperator();
+    private Termination termination = new Termination(0);
     private final int tabuTenureDivisor = 4;
     private final double candidateFraction = 0.2;
 
@@ -13,47 +13,62 @@ public class TabuSearchAlgorithm extends Algorithm implements TimeLimitedAlgorit
     }
 
     @Override
-    public void run(long timeLimitNs) {
-        this.timeLimitNs = timeLimitNs;
+    public void run(Termination termination) {
+        this.termination = termination;
+        int n = problem.getSize();
+        // Unless told otherwise, give up after n * 10 iterations without a new best.
+        termination.start(n * 10L);
         recordInitial();
 
-        int n = problem.getSize();
         int tabuTenure = Math.max(1, n / tabuTenureDivisor);
         int maxTabuSize = n * n;
 
         Map<String, Integer> tabuList = new HashMap<>();
-        long startTime = TimeUtil.currentTime();
 
-        int bestFitness = evaluate(currentSolution);
+        long bestFitness = initialFitness;
         bestSolution.copyFrom(currentSolution);
-        int noImprovement = 0;
 
-        while ((TimeUtil.currentTime() - startTime) < timeLimitNs && noImprovement < n * 10) {
-            List<Solution> neighbors = operator.generateNeighbors(currentSolution);
-            Collections.shuffle(neighbors);
-            int sampleSize = Math.max(1, (int) (candidateFraction * neighbors.size()));
-            List<Solution> candidates = neighbors.subList(0, sampleSize);
+        // Encoded moves only depend on n, so they are listed once and the candidate
+        // sample is drawn each step with a partial in-place shuffle.
+        int[] moves = new int[n * (n - 1) / 2];
+        int moveCount = 0;
+        for (int move = operator.firstMove(n); move != NeighborhoodOperator.NO_MOVE; move = operator.nextMove(move, n)) {
+            moves[moveCount++] = move;
+        }
+        int sampleSize = Math.max(1, (int) (candidateFraction * moveCount));
+        SwapDeltaMatrix deltas = new SwapDeltaMatrix(problem, deltaEvaluator);
+        long currentFitness = bestFitness;
 
-            Solution bestCandidate = null;
-            int bestCandidateFitness = Integer.MAX_VALUE;
+        while (!termination.shouldStop(getEvaluationsCount(), bestFitness)) {
+            int bestMove = NeighborhoodOperator.NO_MOVE;
+            long bestCandidateFitness = Long.MAX_VALUE;
             String bestMoveKey = null;
 
-            for (Solution candidate : candidates) {
-                int fitness = evaluate(candidate);
-                String moveKey = moveKey(currentSolution, candidate);
+            for (int c = 0; c < sampleSize; c++) {
+                int pick = c + rand.nextInt(moveCount - c);
+                int move = moves[pick];
+                moves[pick] = moves[c];
+                moves[c] = move;
+
+                int i = TwoSwapOperator.firstPosition(move, n);
+                int j = TwoSwapOperator.secondPosition(move, n);
+                long fitness = currentFitness + deltas.get(currentSolution, i, j);
+                String moveKey = moveKey(currentSolution, i, j);
 
                 boolean isTabu = tabuList.containsKey(moveKey);
-                boolean aspiration = fitness < evaluate(bestSolution);
+                boolean aspiration = fitness < bestFitness;
 
                 if ((!isTabu || aspiration) && fitness < bestCandidateFitness) {
-                    bestCandidate = candidate;
+                    bestMove = move;
                     bestCandidateFitness = fitness;
                     bestMoveKey = moveKey;
                 }
             }
 
-            if (bestCandidate != null) {
-                currentSolution.copyFrom(bestCandidate);
+            if (bestMove != NeighborhoodOperator.NO_MOVE) {
+                deltas.applySwap(currentSolution,
+                        TwoSwapOperator.firstPosition(bestMove, n), TwoSwapOperator.secondPosition(bestMove, n));
+                currentFitness = bestCandidateFitness;
                 stepsCount++;
 
                 // Add to tabu list
@@ -64,10 +79,8 @@ public class TabuSearchAlgorithm extends Algorithm implements TimeLimitedAlgorit
 
                 if (bestCandidateFitness < bestFitness) {
                     bestFitness = bestCandidateFitness;
-                    bestSolution.copyFrom(bestCandidate);
-                    noImprovement = 0;
-                } else {
-                    noImprovement++;
+                    bestSolution.copyFrom(currentSolution);
+                    recordBest(bestFitness);
                 }
             } else {
                 break; // No valid move found
@@ -75,17 +88,16 @@ public class TabuSearchAlgorithm extends Algorithm implements TimeLimitedAlgorit
         }
     }
 
-    private String moveKey(Solution from, Solution to) {
-        int[] a = from.getAssignment();
-        int[] b = to.getAssignment();
-        for (int i = 0; i < a.length; i++) {
-            if (a[i] != b[i]) return i + "-" + b[i];
-        }
-        return "no-change";
+    /**
+     * Key of a move: the first position it changes and the value placed there.
+     * For a swap {i, j} with i < j that is position i receiving the value at j.
+     */
+    private String moveKey(Solution from, int i, int j) {
+        return i + "-" + from.getAssignment()[j];
     }
 
     @Override
     public void run() {
-        run(this.timeLimitNs);
+        run(termination);
     }
 }
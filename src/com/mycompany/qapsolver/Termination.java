@@ -0,0 +1,236 @@
+package com.mycompany.qapsolver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * When a run stops: a wall-clock budget, a CPU-time budget, an evaluation budget,
+ * a target fitness and a stagnation limit, whichever is reached first. Criteria
+ * that are not set never fire.
+ *
+ * Searches call shouldStop() once per iteration with their evaluation count and
+ * best fitness. The evaluation, target and stagnation tests are plain comparisons;
+ * the clocks are only read every stride calls, and the stride adapts so that reads
+ * happen about every Config.TERMINATION_CHECK_INTERVAL_NS (sooner when the wall
+ * budget is about to run out). A search making millions of moves per second then
+ * reads the clock a few thousand times per second rather than on every move.
+ *
+ * The first check that sees the target reached records the time to target, whether
+ * or not the target is set to stop the run.
+ *
+ * Stagnation counts shouldStop() calls since the best fitness last improved, i.e.
+ * iterations of the calling search, whatever an iteration is for it.
+ *
+ * The CPU budget measures the thread that called start(), via the ThreadMXBean; it
+ * never fires when the JVM does not support thread CPU time. For parallel searches
+ * that is the coordinating thread, so they are better limited by wall time or
+ * evaluations.
+ *
+ * A Termination tracks one run at a time. shouldStop() must not be called from two
+ * threads at once: parallel searches call it from their coordinating thread or
+ * under a lock. isStopped() may be read from any thread.
+ */
+public class Termination {
+    public enum Reason { WALL_TIME, CPU_TIME, EVALUATIONS, TARGET, STAGNATION }
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    // Upper bound on the stride, so even the fastest loops look at the clock now and then.
+    private static final int MAX_STRIDE = 1 << 16;
+
+    private long wallTimeNs = Long.MAX_VALUE;
+    private long cpuTimeNs = Long.MAX_VALUE;
+    private long maxEvaluations = Long.MAX_VALUE;
+    private long targetFitness = Long.MIN_VALUE;
+    private boolean stopAtTarget = true;
+    private long stagnationIterations = Long.MAX_VALUE;
+
+    // State of the current run, reset by start().
+    private long startNs;
+    private long cpuThreadId;
+    private long startCpuNs;
+    private long lastReadNs;
+    private int stride;
+    private int countdown;
+    private long stagnationLimit;
+    private long bestFitness;
+    private long sinceImprovement;
+    private long stopNs;
+    private long timeToTargetNs;
+    private volatile Reason reason;
+
+    // No limits: the search stops on its own criteria only.
+    public Termination() {
+    }
+
+    // A wall-clock budget, as TimeLimitedAlgorithm.run(long) gives.
+    public Termination(long wallTimeNs) {
+        this.wallTimeNs = wallTimeNs;
+    }
+
+    public void setCpuTime(long cpuTimeNs) {
+        this.cpuTimeNs = cpuTimeNs;
+    }
+
+    public void setMaxEvaluations(long maxEvaluations) {
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    // Stops once the best fitness is at most targetFitness, e.g. a known optimum.
+    public void setTargetFitness(long targetFitness) {
+        this.targetFitness = targetFitness;
+    }
+
+    // When false, reaching the target is only recorded (getTimeToTarget()) and the run goes on.
+    public void setStopAtTarget(boolean stopAtTarget) {
+        this.stopAtTarget = stopAtTarget;
+    }
+
+    // Stops after this many iterations without a new best fitness.
+    public void setStagnation(long iterations) {
+        this.stagnationIterations = iterations;
+    }
+
+    public long getWallTime() {
+        return wallTimeNs;
+    }
+
+    public long getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    public long getTargetFitness() {
+        return targetFitness;
+    }
+
+    public boolean isStopAtTarget() {
+        return stopAtTarget;
+    }
+
+    /**
+     * Starts the budgets now, on the calling thread.
+     */
+    public void start() {
+        start(Long.MAX_VALUE);
+    }
+
+    /**
+     * Same, for a search with a stagnation rule of its own: defaultStagnation applies
+     * unless setStagnation() was called.
+     */
+    public void start(long defaultStagnation) {
+        startNs = System.nanoTime();
+        lastReadNs = startNs;
+        cpuThreadId = Thread.currentThread().getId();
+        startCpuNs = cpuTimeNs != Long.MAX_VALUE ? THREAD_BEAN.getCurrentThreadCpuTime() : 0;
+        stride = 1;
+        countdown = 1;
+        stagnationLimit = stagnationIterations != Long.MAX_VALUE ? stagnationIterations : defaultStagnation;
+        bestFitness = Long.MAX_VALUE;
+        sinceImprovement = 0;
+        stopNs = 0;
+        timeToTargetNs = -1;
+        reason = null;
+    }
+
+    /**
+     * True once any criterion is met; after that it keeps returning true.
+     *
+     * @param evaluations evaluations the search has made so far
+     * @param bestFitness best fitness the search has found so far
+     */
+    public boolean shouldStop(long evaluations, long bestFitness) {
+        if (reason != null) {
+            return true;
+        }
+        if (bestFitness < this.bestFitness) {
+            this.bestFitness = bestFitness;
+            sinceImprovement = 0;
+        } else {
+            sinceImprovement++;
+        }
+        if (bestFitness <= targetFitness) {
+            long now = System.nanoTime();
+            if (timeToTargetNs < 0) {
+                timeToTargetNs = now - startNs;
+            }
+            if (stopAtTarget) {
+                return stop(Reason.TARGET, now);
+            }
+        }
+        if (evaluations >= maxEvaluations) {
+            return stop(Reason.EVALUATIONS, System.nanoTime());
+        }
+        if (sinceImprovement >= stagnationLimit) {
+            return stop(Reason.STAGNATION, System.nanoTime());
+        }
+        if (--countdown > 0) {
+            return false;
+        }
+        return checkClocks();
+    }
+
+    private boolean checkClocks() {
+        long now = System.nanoTime();
+        long elapsed = now - startNs;
+        if (elapsed >= wallTimeNs) {
+            return stop(Reason.WALL_TIME, now);
+        }
+        if (cpuTimeNs != Long.MAX_VALUE) {
+            long cpu = THREAD_BEAN.getThreadCpuTime(cpuThreadId);
+            if (cpu >= 0 && cpu - startCpuNs >= cpuTimeNs) {
+                return stop(Reason.CPU_TIME, now);
+            }
+        }
+        // Aim the next read one interval ahead (or at the wall deadline if that is nearer),
+        // judging the speed of the caller by the last stride; the stride at most doubles per read.
+        long aheadNs = Math.min(Config.TERMINATION_CHECK_INTERVAL_NS, wallTimeNs - elapsed);
+        long sinceRead = Math.max(1, now - lastReadNs);
+        long next = (long) ((double) stride * aheadNs / sinceRead);
+        stride = (int) Math.max(1, Math.min(next, Math.min(2L * stride, MAX_STRIDE)));
+        countdown = stride;
+        lastReadNs = now;
+        return false;
+    }
+
+    private boolean stop(Reason why, long now) {
+        stopNs = now;
+        reason = why;
+        return true;
+    }
+
+    // True once the run has been stopped; safe to poll from worker threads.
+    public boolean isStopped() {
+        return reason != null;
+    }
+
+    // The criterion that stopped the run, or null while it is running (or ended on its own).
+    public Reason getReason() {
+        return reason;
+    }
+
+    // Wall time from start() to the first check that saw the target reached, or -1.
+    public long getTimeToTarget() {
+        return timeToTargetNs;
+    }
+
+    // Wall time from start() to the stop, or to now while running.
+    public long getElapsedNs() {
+        return (reason != null ? stopNs : System.nanoTime()) - startNs;
+    }
+
+    /**
+     * The System.nanoTime() value at which the wall budget runs out, for workers that
+     * compare the clock themselves; Long.MAX_VALUE without a wall budget.
+     */
+    public long getWallDeadline() {
+        return wallTimeNs == Long.MAX_VALUE || startNs + wallTimeNs < startNs ? Long.MAX_VALUE : startNs + wallTimeNs;
+    }
+
+    // Wall time left, at least 0; Long.MAX_VALUE without a wall budget.
+    public long getRemainingWallTime() {
+        if (wallTimeNs == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, wallTimeNs - (System.nanoTime() - startNs));
+    }
+}
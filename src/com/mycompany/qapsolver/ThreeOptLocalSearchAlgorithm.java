@@ -0,0 +1,83 @@
+package com.mycompany.qapsolver;
+
+/**
+ * Multi-start local search in the 3-opt neighborhood, in steepest-descent or
+ * first-improvement mode.
+ *
+ * Each start keeps a SwapDeltaMatrix for its solution, so the swap components of
+ * a 3-opt move are read from the table and only the second swap of a cyclic move
+ * costs an O(n) delta. Combined with a candidate-list ThreeOptOperator this makes
+ * a 3-opt scan practical for n = 50..100. In first-improvement mode the scan
+ * resumes after the last applied move and wraps around, and a start ends after a
+ * full pass without improvement.
+ */
+public class ThreeOptLocalSearchAlgorithm extends LocalSearchAlgorithm {
+    private final ThreeOptOperator operator;
+    private final boolean firstImprovement;
+
+    public ThreeOptLocalSearchAlgorithm(Problem problem, int maxIterations, int randomStarts,
+                                        ThreeOptOperator operator, boolean firstImprovement) {
+        super(problem, maxIterations, randomStarts);
+        this.operator = operator;
+        this.firstImprovement = firstImprovement;
+    }
+
+    @Override
+    protected long localSearch(StartState start, long currentFitness) {
+        int n = problem.getSize();
+        if (operator.firstMove(n) == NeighborhoodOperator.NO_MOVE) {
+            return currentFitness;
+        }
+        SwapDeltaMatrix deltas = new SwapDeltaMatrix(problem, start.deltaEvaluator);
+        return firstImprovement
+                ? descendFirstImprovement(start, deltas, currentFitness, n)
+                : descendSteepest(start, deltas, currentFitness, n);
+    }
+
+    private long descendSteepest(StartState start, SwapDeltaMatrix deltas, long currentFitness, int n) {
+        while (start.steps < maxIterations && !pastDeadline()) {
+            long bestDelta = 0;
+            int bestMove = NeighborhoodOperator.NO_MOVE;
+            for (int move = operator.firstMove(n); move != NeighborhoodOperator.NO_MOVE; move = operator.nextMove(move, n)) {
+                long delta = operator.evaluateMove(start.solution, move, deltas, start.deltaEvaluator);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestMove = move;
+                }
+            }
+            if (bestMove == NeighborhoodOperator.NO_MOVE) {
+                break;
+            }
+            operator.applyMove(start.solution, bestMove, deltas);
+            currentFitness += bestDelta;
+            start.steps++;
+        }
+        return currentFitness;
+    }
+
+    private long descendFirstImprovement(StartState start, SwapDeltaMatrix deltas, long currentFitness, int n) {
+        int move = operator.firstMove(n);
+        // The scan is over once it comes back here without having improved.
+        int stopAt = move;
+        while (start.steps < maxIterations) {
+            long delta = operator.evaluateMove(start.solution, move, deltas, start.deltaEvaluator);
+            if (delta < 0) {
+                operator.applyMove(start.solution, move, deltas);
+                currentFitness += delta;
+                start.steps++;
+                stopAt = move;
+                if (pastDeadline()) {
+                    break;
+                }
+            }
+            move = operator.nextMove(move, n);
+            if (move == NeighborhoodOperator.NO_MOVE) {
+                move = operator.firstMove(n);
+            }
+            if (move == stopAt) {
+                break;
+            }
+        }
+        return currentFitness;
+    }
+}
@@ -1,69 +1,280 @@
 package com.mycompany.qapsolver;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
+/**
+ * Rearranges the values at three positions i, j, k. With (a, b, c) the
+ * current values, the five options produce (a,c,b), (b,a,c), (c,b,a),
+ * (c,a,b) and (b,c,a). A move is encoded as ((i * n + j) * n + k) * 5 + option.
+ *
+ * The default neighborhood is every triple i < j < k. Built from a Problem with
+ * a candidate count c, it is every plain swap followed by the two cyclic options
+ * of the triples (i, j, k) with j < k taken from the c facilities that exchange
+ * the most flow with facility i. The swaps keep the whole 2-swap neighborhood in
+ * the scan (so a local optimum of it is also one for 2-swap), and the candidate
+ * lists shrink the cyclic part from O(n^3) to O(n c^2) moves. A swap of (j, k) is
+ * encoded as option 0 of the triple (0, j, k). In a cyclic triple the anchor i is
+ * not necessarily the smallest index, and a triple may be listed from more than
+ * one anchor; the options are the same rearrangements either way.
+ */
 public class ThreeOptOperator implements NeighborhoodOperator {
+    private static final int OPTIONS = 5;
+    // First of the two cyclic options, the only ones the candidate triples use.
+    private static final int FIRST_CYCLIC = 3;
+
+    // Candidate neighborhood only: candidates[i] in increasing order, and
+    // candidateRank[i * n + j] = index of j in candidates[i], or -1.
+    private final int[][] candidates;
+    private final int[] candidateRank;
+    // Candidate neighborhood only: number of cyclic moves, for randomMove().
+    private final long cyclicMoves;
+
+    public ThreeOptOperator() {
+        this.candidates = null;
+        this.candidateRank = null;
+        this.cyclicMoves = 0;
+    }
+
+    public ThreeOptOperator(Problem problem, int candidateCount) {
+        int n = problem.getSize();
+        int c = Math.max(2, Math.min(candidateCount, n - 1));
+        int[] flow = problem.getFlowData();
+        int[] flowT = problem.getFlowDataTransposed();
+        this.candidates = new int[n][];
+        this.candidateRank = new int[n * n];
+        Arrays.fill(candidateRank, -1);
+        long cyclic = 0;
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            Integer[] others = new Integer[n - 1];
+            for (int j = 0, o = 0; j < n; j++) {
+                if (j != i) {
+                    others[o++] = j;
+                }
+            }
+            // Strongest interaction in either direction first.
+            Arrays.sort(others, (x, y) -> Long.compare(
+                    (long) flow[row + y] + flowT[row + y], (long) flow[row + x] + flowT[row + x]));
+            int[] list = new int[Math.min(c, n - 1)];
+            for (int a = 0; a < list.length; a++) {
+                list[a] = others[a];
+            }
+            Arrays.sort(list);
+            for (int a = 0; a < list.length; a++) {
+                candidateRank[row + list[a]] = a;
+            }
+            candidates[i] = list;
+            cyclic += (long) list.length * (list.length - 1);
+        }
+        this.cyclicMoves = cyclic;
+    }
 
     @Override
-    public List<Solution> generateNeighbors(Solution current) {
-        int n = current.getAssignment().length;
-        List<Solution> neighbors = new ArrayList<>();
-        // Iterate over all triples i < j < k.
-        for (int i = 0; i < n - 2; i++) {
-            for (int j = i + 1; j < n - 1; j++) {
-                for (int k = j + 1; k < n; k++) {
-                    // Extract the three elements.
-                    int a = current.getAssignment()[i];
-                    int b = current.getAssignment()[j];
-                    int c = current.getAssignment()[k];
-                    neighbors.add(applyThreeOpt(current, i, j, k, new int[]{a, c, b}));
-                    neighbors.add(applyThreeOpt(current, i, j, k, new int[]{b, a, c}));
-                    neighbors.add(applyThreeOpt(current, i, j, k, new int[]{c, b, a}));
-                    neighbors.add(applyThreeOpt(current, i, j, k, new int[]{c, a, b}));
-                    neighbors.add(applyThreeOpt(current, i, j, k, new int[]{b, c, a}));
+    public int firstMove(int n) {
+        // With two facilities the candidate neighborhood is just the one swap.
+        if (candidates != null && n >= 2) {
+            return encode(0, 0, 1, 0, n);
+        }
+        if (n < 3) {
+            return NO_MOVE;
+        }
+        return encode(0, 1, 2, 0, n);
+    }
+
+    @Override
+    public int nextMove(int move, int n) {
+        int option = move % OPTIONS;
+        int triple = move / OPTIONS;
+        int k = triple % n;
+        int j = (triple / n) % n;
+        int i = triple / n / n;
+        if (candidates != null) {
+            if (option == 0) {
+                // Swap phase: pairs j < k, then on to the cyclic moves.
+                if (k + 1 < n) {
+                    return encode(0, j, k + 1, 0, n);
+                }
+                if (j + 2 < n) {
+                    return encode(0, j + 1, j + 2, 0, n);
+                }
+                if (cyclicMoves == 0) {
+                    return NO_MOVE;
                 }
+                return encode(0, candidates[0][0], candidates[0][1], FIRST_CYCLIC, n);
+            }
+            if (option + 1 < OPTIONS) {
+                return move + 1;
+            }
+            int[] list = candidates[i];
+            int a = candidateRank[i * n + j];
+            int b = candidateRank[i * n + k];
+            if (b + 1 < list.length) {
+                return encode(i, j, list[b + 1], FIRST_CYCLIC, n);
+            }
+            if (a + 2 < list.length) {
+                return encode(i, list[a + 1], list[a + 2], FIRST_CYCLIC, n);
             }
+            if (i + 1 < n) {
+                return encode(i + 1, candidates[i + 1][0], candidates[i + 1][1], FIRST_CYCLIC, n);
+            }
+            return NO_MOVE;
+        }
+        if (option + 1 < OPTIONS) {
+            return move + 1;
+        }
+        if (k + 1 < n) {
+            return encode(i, j, k + 1, 0, n);
+        }
+        if (j + 2 < n) {
+            return encode(i, j + 1, j + 2, 0, n);
         }
-        return neighbors;
+        if (i + 3 < n) {
+            return encode(i + 1, i + 2, i + 3, 0, n);
+        }
+        return NO_MOVE;
     }
 
     @Override
-    public Solution getRandomNeighbor(Solution current) {
-        int n = current.getAssignment().length;
+    public int randomMove(int n, RandomGenerator rand) {
+        if (candidates != null) {
+            // A swap or a cyclic move, in proportion to how many of each the scan has.
+            long swaps = (long) n * (n - 1) / 2;
+            if (rand.nextLong(swaps + cyclicMoves) < swaps) {
+                int j = rand.nextInt(n);
+                int k;
+                do { k = rand.nextInt(n); } while (k == j);
+                return encode(0, Math.min(j, k), Math.max(j, k), 0, n);
+            }
+            int i = rand.nextInt(n);
+            int[] list = candidates[i];
+            int a = rand.nextInt(list.length);
+            int b;
+            do { b = rand.nextInt(list.length); } while (b == a);
+            return encode(i, list[Math.min(a, b)], list[Math.max(a, b)], FIRST_CYCLIC + rand.nextInt(2), n);
+        }
         // Choose three distinct indices.
-        int i = (int)(Math.random() * n);
+        int i = rand.nextInt(n);
         int j, k;
-        do { j = (int)(Math.random() * n); } while (j == i);
-        do { k = (int)(Math.random() * n); } while (k == i || k == j);
-        int[] idx = new int[]{i, j, k};
-        Arrays.sort(idx);
+        do { j = rand.nextInt(n); } while (j == i);
+        do { k = rand.nextInt(n); } while (k == i || k == j);
+        // Sort the three indices without allocating.
+        int lo = Math.min(i, Math.min(j, k));
+        int hi = Math.max(i, Math.max(j, k));
+        int mid = i + j + k - lo - hi;
         // Choose one random permutation among the 5 options.
-        int option = (int)(Math.random() * 5);
-        int[] newTriple = null;
-        switch(option) {
-            case 0: newTriple = new int[]{current.getAssignment()[idx[0]], current.getAssignment()[idx[2]], current.getAssignment()[idx[1]]}; break;
-            case 1: newTriple = new int[]{current.getAssignment()[idx[1]], current.getAssignment()[idx[0]], current.getAssignment()[idx[2]]}; break;
-            case 2: newTriple = new int[]{current.getAssignment()[idx[2]], current.getAssignment()[idx[1]], current.getAssignment()[idx[0]]}; break;
-            case 3: newTriple = new int[]{current.getAssignment()[idx[2]], current.getAssignment()[idx[0]], current.getAssignment()[idx[1]]}; break;
-            case 4: newTriple = new int[]{current.getAssignment()[idx[1]], current.getAssignment()[idx[2]], current.getAssignment()[idx[0]]}; break;
+        int option = rand.nextInt(OPTIONS);
+        return encode(lo, mid, hi, option, n);
+    }
+
+    /**
+     * Every rearrangement of a triple is one or two swaps, so its delta is the
+     * delta of the first swap plus the delta of the second swap measured on the
+     * intermediate permutation. The intermediate swap is undone before returning.
+     */
+    @Override
+    public long evaluateMove(Solution current, int move, DeltaEvaluator evaluator) {
+        return evaluateMove(current, move, null, evaluator);
+    }
+
+    /**
+     * Same as evaluateMove(current, move, evaluator), but reads the first swap of
+     * each option from a delta table kept for current: the three plain swaps then
+     * cost O(1) and the two cyclic options a single O(n) delta.
+     */
+    public long evaluateMove(Solution current, int move, SwapDeltaMatrix deltas, DeltaEvaluator evaluator) {
+        int n = current.getAssignment().length;
+        int option = move % OPTIONS;
+        int triple = move / OPTIONS;
+        int k = triple % n;
+        int j = (triple / n) % n;
+        int i = triple / n / n;
+        switch (option) {
+            case 0: return swapDelta(current, j, k, deltas, evaluator);
+            case 1: return swapDelta(current, i, j, deltas, evaluator);
+            case 2: return swapDelta(current, i, k, deltas, evaluator);
+            case 3: return twoSwapDelta(current, i, k, j, k, deltas, evaluator);
+            case 4: return twoSwapDelta(current, i, j, j, k, deltas, evaluator);
+            default: throw new IllegalArgumentException("Unknown 3-opt option: " + option);
+        }
+    }
+
+    @Override
+    public void applyMove(Solution current, int move) {
+        int n = current.getAssignment().length;
+        int option = move % OPTIONS;
+        int triple = move / OPTIONS;
+        int k = triple % n;
+        int j = (triple / n) % n;
+        int i = triple / n / n;
+        switch (option) {
+            case 0: current.swap(j, k); break;
+            case 1: current.swap(i, j); break;
+            case 2: current.swap(i, k); break;
+            case 3: current.swap(i, k); current.swap(j, k); break;
+            case 4: current.swap(i, j); current.swap(j, k); break;
+            default: throw new IllegalArgumentException("Unknown 3-opt option: " + option);
         }
-        return applyThreeOpt(current, idx[0], idx[1], idx[2], newTriple);
     }
 
     /**
-     * Helper method that creates a new Solution by copying the current one
-     * and then replacing the elements at positions i, j, k with newTriple.
+     * Applies the move through a delta table kept for current, so the table stays valid.
      */
-    private Solution applyThreeOpt(Solution current, int i, int j, int k, int[] newTriple) {
+    public void applyMove(Solution current, int move, SwapDeltaMatrix deltas) {
+        int n = current.getAssignment().length;
+        int option = move % OPTIONS;
+        int triple = move / OPTIONS;
+        int k = triple % n;
+        int j = (triple / n) % n;
+        int i = triple / n / n;
+        switch (option) {
+            case 0: deltas.applySwap(current, j, k); break;
+            case 1: deltas.applySwap(current, i, j); break;
+            case 2: deltas.applySwap(current, i, k); break;
+            case 3: deltas.applySwap(current, i, k); deltas.applySwap(current, j, k); break;
+            case 4: deltas.applySwap(current, i, j); deltas.applySwap(current, j, k); break;
+            default: throw new IllegalArgumentException("Unknown 3-opt option: " + option);
+        }
+    }
+
+    @Override
+    public void undoMove(Solution current, int move) {
         int n = current.getAssignment().length;
-        Solution neighbor = new Solution(n);
-        neighbor.copyFrom(current);
-        int[] arr = neighbor.getAssignment();
-        arr[i] = newTriple[0];
-        arr[j] = newTriple[1];
-        arr[k] = newTriple[2];
-        return neighbor;
+        int option = move % OPTIONS;
+        int triple = move / OPTIONS;
+        int k = triple % n;
+        int j = (triple / n) % n;
+        int i = triple / n / n;
+        switch (option) {
+            case 0: current.swap(j, k); break;
+            case 1: current.swap(i, j); break;
+            case 2: current.swap(i, k); break;
+            case 3: current.swap(j, k); current.swap(i, k); break;
+            case 4: current.swap(j, k); current.swap(i, j); break;
+            default: throw new IllegalArgumentException("Unknown 3-opt option: " + option);
+        }
+    }
+
+    private static int encode(int i, int j, int k, int option, int n) {
+        return ((i * n + j) * n + k) * OPTIONS + option;
+    }
+
+    private static long swapDelta(Solution current, int a, int b, SwapDeltaMatrix deltas, DeltaEvaluator evaluator) {
+        return deltas != null ? deltas.get(current, a, b) : evaluator.swapDelta(current, a, b);
+    }
+
+    // The intermediate swap is made on the raw array, so the solution's version (and
+    // with it any delta table attached to it) is left untouched.
+    private static long twoSwapDelta(Solution current, int a1, int b1, int a2, int b2,
+                                     SwapDeltaMatrix deltas, DeltaEvaluator evaluator) {
+        long delta = swapDelta(current, a1, b1, deltas, evaluator);
+        int[] p = current.getAssignment();
+        int t = p[a1];
+        p[a1] = p[b1];
+        p[b1] = t;
+        delta += evaluator.swapDelta(p, a2, b2);
+        p[b1] = p[a1];
+        p[a1] = t;
+        return delta;
     }
 }
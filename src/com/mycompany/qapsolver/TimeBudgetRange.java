@@ -1,5 +1,7 @@
 package com.mycompany.qapsolver;
 
+import java.util.random.RandomGenerator;
+
 public class TimeBudgetRange {
     public final long minTime;
     public final long maxTime;
@@ -9,8 +11,8 @@ public class TimeBudgetRange {
         this.maxTime = maxTime;
     }
 
-    public long randomBudget() {
-        // Using Math.random() for simplicity.
-        return minTime + (long)(Math.random() * (maxTime - minTime));
+    // Uniform in [minTime, maxTime), drawn from the caller's generator so budgets are reproducible.
+    public long randomBudget(RandomGenerator rand) {
+        return minTime + (long)(rand.nextDouble() * (maxTime - minTime));
     }
 }
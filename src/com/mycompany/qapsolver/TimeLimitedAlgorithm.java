@@ -1,6 +1,18 @@
 package com.mycompany.qapsolver;
 
+/**
+ * An algorithm that searches until told to stop rather than until it converges.
+ */
 public interface TimeLimitedAlgorithm {
 
-    void run(long timeLimitNs);
+    /**
+     * Runs until termination fires (or the search ends on its own). The algorithm
+     * starts termination itself, so the budget covers exactly the search.
+     */
+    void run(Termination termination);
+
+    // Runs for a wall-clock budget only.
+    default void run(long timeLimitNs) {
+        run(new Termination(timeLimitNs));
+    }
 }
@@ -1,37 +1,63 @@
 package com.mycompany.qapsolver;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.random.RandomGenerator;
 
+/**
+ * Swaps the locations of two facilities. A move {i, j} with i < j is encoded as i * n + j.
+ */
 public class TwoSwapOperator implements NeighborhoodOperator {
 
     @Override
-    public List<Solution> generateNeighbors(Solution current) {
-        int n = current.getAssignment().length;
-        List<Solution> neighbors = new ArrayList<>();
-        // Enumerate all pairs i < j.
-        for (int i = 0; i < n - 1; i++) {
-            for (int j = i + 1; j < n; j++) {
-                Solution neighbor = new Solution(n);
-                neighbor.copyFrom(current);
-                neighbor.swap(i, j);
-                neighbors.add(neighbor);
-            }
+    public int firstMove(int n) {
+        return n < 2 ? NO_MOVE : 1;
+    }
+
+    @Override
+    public int nextMove(int move, int n) {
+        int i = move / n;
+        int j = move % n;
+        if (j + 1 < n) {
+            return move + 1;
+        }
+        if (i + 2 < n) {
+            return (i + 1) * n + (i + 2);
         }
-        return neighbors;
+        return NO_MOVE;
     }
 
     @Override
-    public Solution getRandomNeighbor(Solution current) {
-        int n = current.getAssignment().length;
-        int i = (int)(Math.random() * n);
+    public int randomMove(int n, RandomGenerator rand) {
+        int i = rand.nextInt(n);
         int j;
         do {
-            j = (int)(Math.random() * n);
+            j = rand.nextInt(n);
         } while (j == i);
-        Solution neighbor = new Solution(n);
-        neighbor.copyFrom(current);
-        neighbor.swap(i, j);
-        return neighbor;
+        return Math.min(i, j) * n + Math.max(i, j);
+    }
+
+    @Override
+    public long evaluateMove(Solution current, int move, DeltaEvaluator evaluator) {
+        int n = current.getAssignment().length;
+        return evaluator.swapDelta(current, move / n, move % n);
+    }
+
+    @Override
+    public void applyMove(Solution current, int move) {
+        int n = current.getAssignment().length;
+        current.swap(move / n, move % n);
+    }
+
+    @Override
+    public void undoMove(Solution current, int move) {
+        applyMove(current, move);
+    }
+
+    // Decoding helpers for callers that need the swapped positions themselves.
+    public static int firstPosition(int move, int n) {
+        return move / n;
+    }
+
+    public static int secondPosition(int move, int n) {
+        return move % n;
     }
 }
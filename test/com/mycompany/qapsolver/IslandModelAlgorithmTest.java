@@ -0,0 +1,55 @@
+package com.mycompany.qapsolver;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class IslandModelAlgorithmTest {
+    private static final int SIZE = 400;
+
+    private static final ExperimentRunner.AlgorithmFactory SINGLE_START_STEEPEST = new ExperimentRunner.AlgorithmFactory() {
+        public String getName() { return "S-2swap"; }
+        public Algorithm create(Problem problem) {
+            return new MultiStartSteepestDescentAlgorithm(problem, Integer.MAX_VALUE, 1, new TwoSwapOperator());
+        }
+    };
+
+    private static Problem randomProblem(int n, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int[][] flow = new int[n][n];
+        int[][] distance = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    flow[i][j] = rand.nextInt(100);
+                    distance[i][j] = rand.nextInt(100);
+                }
+            }
+        }
+        return new Problem(flow, distance);
+    }
+
+    @Test
+    void singleStartIslandStopsAtTheEpochDeadline() {
+        Problem problem = randomProblem(SIZE, 3);
+
+        // A full descent from a random permutation takes a few hundred steps of O(n^2) each.
+        Algorithm descent = SINGLE_START_STEEPEST.create(problem);
+        descent.setSeed(1);
+        long start = System.nanoTime();
+        descent.run();
+        long descentNs = System.nanoTime() - start;
+
+        IslandModelAlgorithm islands = new IslandModelAlgorithm(problem, List.of(SINGLE_START_STEEPEST));
+        islands.setSeed(1);
+        islands.setEpochs(1);
+        start = System.nanoTime();
+        islands.run(new Termination(10_000_000L));
+        long islandsNs = System.nanoTime() - start;
+
+        assertTrue(islandsNs < descentNs / 2,
+                "island ran " + islandsNs / 1_000_000 + " ms, a full descent takes " + descentNs / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,65 @@
+package com.mycompany.qapsolver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class ParallelTemperingAlgorithmTest {
+    private static final int REPLICAS = 4;
+
+    /**
+     * Fails on the third new best of the replica on the pool's last thread, in the
+     * middle of an exchange interval, while the earlier replicas (whose tasks come
+     * first) are still running theirs.
+     */
+    private static final class FailingReplica extends ParallelTemperingAlgorithm {
+        private final ThreadLocal<Integer> improvements = ThreadLocal.withInitial(() -> 0);
+
+        FailingReplica(Problem problem) {
+            super(problem);
+        }
+
+        @Override
+        protected void recordBest(long fitness, long evaluations) {
+            // Executors' default threads are named pool-N-thread-M, M counting from 1 in creation order.
+            if (Thread.currentThread().getName().endsWith("-thread-" + REPLICAS)) {
+                int count = improvements.get() + 1;
+                improvements.set(count);
+                if (count == 3) {
+                    throw new IllegalStateException("replica failure");
+                }
+            }
+            super.recordBest(fitness, evaluations);
+        }
+    }
+
+    private static Problem randomProblem(int n, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        int[][] flow = new int[n][n];
+        int[][] distance = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    flow[i][j] = rand.nextInt(100);
+                    distance[i][j] = rand.nextInt(100);
+                }
+            }
+        }
+        return new Problem(flow, distance);
+    }
+
+    @Test
+    void runReturnsWhenAReplicaFailsMidInterval() {
+        FailingReplica pt = new FailingReplica(randomProblem(30, 7));
+        pt.setSeed(1);
+        pt.setReplicaCount(REPLICAS);
+        pt.setExchangeInterval(1_000_000);
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(20),
+                () -> assertThrows(IllegalStateException.class, () -> pt.run(10_000_000_000L)));
+        assertEquals("replica failure", failure.getCause().getMessage());
+    }
+}